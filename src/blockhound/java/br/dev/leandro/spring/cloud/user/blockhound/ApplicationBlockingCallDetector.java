@@ -0,0 +1,65 @@
+package br.dev.leandro.spring.cloud.user.blockhound;
+
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.BlockingOperationError;
+import reactor.blockhound.integration.BlockHoundIntegration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Integração do BlockHound, instalada pelo {@code blockhound-junit-platform} via ServiceLoader.
+ * Só acusa chamadas bloqueantes que tenham na pilha código dos pacotes {@code controller},
+ * {@code service} ou {@code utils}; bloqueios de bibliotecas fora desse caminho são ignorados.
+ * Além de lançar o erro na própria thread, a violação é guardada para o
+ * {@link BlockingCallExtension} falhar o teste mesmo quando o erro é engolido pelo pipeline.
+ */
+public class ApplicationBlockingCallDetector implements BlockHoundIntegration {
+
+    private static final String BASE_PACKAGE = "br.dev.leandro.spring.cloud.user.";
+    private static final List<String> CHECKED_PACKAGES = List.of(
+            BASE_PACKAGE + "controller.",
+            BASE_PACKAGE + "service.",
+            BASE_PACKAGE + "utils.");
+
+    private static final ConcurrentLinkedQueue<BlockingOperationError> VIOLATIONS = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void applyTo(BlockHound.Builder builder) {
+        // RemoteApplicationEvent gera o id com UUID.randomUUID(), que lê /dev/urandom: não bloqueia no Linux
+        builder.allowBlockingCallsInside(UUID.class.getName(), "randomUUID");
+        builder.blockingMethodCallback(method -> {
+            if (calledFromApplication()) {
+                BlockingOperationError error = new BlockingOperationError(method);
+                VIOLATIONS.add(error);
+                throw error;
+            }
+        });
+    }
+
+    static List<BlockingOperationError> drainViolations() {
+        List<BlockingOperationError> drained = new ArrayList<>();
+        BlockingOperationError error;
+        while ((error = VIOLATIONS.poll()) != null) {
+            drained.add(error);
+        }
+        return drained;
+    }
+
+    private static boolean calledFromApplication() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .map(StackWalker.StackFrame::getClassName)
+                .anyMatch(ApplicationBlockingCallDetector::isChecked));
+    }
+
+    private static boolean isChecked(String className) {
+        for (String checkedPackage : CHECKED_PACKAGES) {
+            if (className.startsWith(checkedPackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,26 @@
+package br.dev.leandro.spring.cloud.user.blockhound;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import reactor.blockhound.BlockingOperationError;
+
+import java.util.List;
+
+/**
+ * Falha o teste que provocou chamadas bloqueantes em threads não bloqueantes. Registrada
+ * automaticamente em todos os testes pelo {@code junit-platform.properties} do profile.
+ */
+public class BlockingCallExtension implements AfterEachCallback {
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        List<BlockingOperationError> violations = ApplicationBlockingCallDetector.drainViolations();
+        if (!violations.isEmpty()) {
+            AssertionError failure = new AssertionError(
+                    "Chamada bloqueante em thread não bloqueante durante " + context.getDisplayName() + ": "
+                            + violations.getFirst().getMessage());
+            violations.forEach(failure::addSuppressed);
+            throw failure;
+        }
+    }
+}
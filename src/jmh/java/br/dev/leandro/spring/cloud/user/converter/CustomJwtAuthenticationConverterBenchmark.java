@@ -0,0 +1,77 @@
+package br.dev.leandro.spring.cloud.user.converter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversão de JWT em authorities para os formatos de token emitidos pelo Keycloak:
+ * roles do client ({@code resource_access}), apenas roles do realm e token sem roles. {@code convert}
+ * mede o caminho com o cache por token (o mesmo token a cada requisição) e {@code convertUncached}
+ * a leitura das claims com o cache desabilitado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomJwtAuthenticationConverterBenchmark {
+
+    @Param({"resource-access", "realm-access", "sem-roles"})
+    public String shape;
+
+    private CustomJwtAuthenticationConverter converter;
+    private CustomJwtAuthenticationConverter uncachedConverter;
+    private Jwt jwt;
+
+    @Setup
+    public void setUp() {
+        converter = new CustomJwtAuthenticationConverter("user-service-admin", 10_000, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        uncachedConverter = new CustomJwtAuthenticationConverter("user-service-admin", 0, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        Jwt.Builder builder = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .header("kid", "5lFh3bU7sN0cL2wQ")
+                .jti("8d2e6f1a-0c3b-4a5d-9e7f-1b2c3d4e5f60")
+                .subject("3f1c2a9e-5b7d-4e8f-9a0b-1c2d3e4f5a6b")
+                .issuer("http://localhost:8443/realms/event-management")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(300))
+                .claim("azp", "event-frontend")
+                .claim("preferred_username", "maria.souza")
+                .claim("email", "maria.souza@example.com")
+                .claim("scope", "openid profile email");
+        switch (shape) {
+            case "resource-access" -> builder
+                    .claim("realm_access", Map.of("roles", List.of("offline_access", "uma_authorization", "default-roles-event-management")))
+                    .claim("resource_access", Map.of(
+                            "user-service", Map.of("roles", List.of("admin", "organizador")),
+                            "account", Map.of("roles", List.of("manage-account", "manage-account-links", "view-profile"))));
+            case "realm-access" -> builder
+                    .claim("realm_access", Map.of("roles", List.of("offline_access", "uma_authorization",
+                            "default-roles-event-management", "participante")))
+                    .claim("resource_access", Map.of(
+                            "account", Map.of("roles", List.of("manage-account", "view-profile"))));
+            default -> builder.claim("sid", "b7a1c3d5");
+        }
+        jwt = builder.build();
+    }
+
+    @Benchmark
+    public Collection<GrantedAuthority> convert() {
+        return converter.convert(jwt);
+    }
+
+    @Benchmark
+    public Collection<GrantedAuthority> convertUncached() {
+        return uncachedConverter.convert(jwt);
+    }
+}
@@ -0,0 +1,39 @@
+package br.dev.leandro.spring.cloud.user.exception.handler;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapeamento das respostas de erro do Keycloak em exceções. Cada invocação cria um
+ * {@link ClientResponse} novo, pois o corpo da resposta só pode ser lido uma vez.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WebClientErrorHandlerBenchmark {
+
+    @Param({"NOT_FOUND", "UNAUTHORIZED", "BAD_REQUEST", "INTERNAL_SERVER_ERROR"})
+    public HttpStatus status;
+
+    @Benchmark
+    public void handleErrorStatus(Blackhole blackhole) {
+        ClientResponse response = ClientResponse.create(status)
+                .header("Content-Type", "application/json")
+                .body("{\"error\":\"erro\",\"error_description\":\"descricao do erro\"}")
+                .build();
+        WebClientErrorHandler.handleErrorStatus(response)
+                .onErrorResume(error -> {
+                    blackhole.consume(error);
+                    return Mono.empty();
+                })
+                .block();
+    }
+}
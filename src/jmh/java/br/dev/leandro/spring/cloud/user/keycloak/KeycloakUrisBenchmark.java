@@ -0,0 +1,47 @@
+package br.dev.leandro.spring.cloud.user.keycloak;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Montagem das URIs das chamadas administrativas ao Keycloak.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeycloakUrisBenchmark {
+
+    private KeycloakUris keycloakUris;
+    private String userId;
+    private Map<String, Object> searchParams;
+
+    @Setup
+    public void setUp() {
+        KeycloakProperties properties = new KeycloakProperties();
+        properties.setAuthServerUrl("http://keycloak:8080");
+        properties.setRealm("event-management");
+        keycloakUris = new KeycloakUris(properties);
+        userId = "3f1c2a9e-5b7d-4e8f-9a0b-1c2d3e4f5a6b";
+        searchParams = new LinkedHashMap<>();
+        searchParams.put("first", 40);
+        searchParams.put("max", 21);
+        searchParams.put("search", "joão silva");
+    }
+
+    @Benchmark
+    public URI userById() {
+        return keycloakUris.user(userId);
+    }
+
+    @Benchmark
+    public URI userSearch() {
+        return keycloakUris.users(searchParams);
+    }
+}
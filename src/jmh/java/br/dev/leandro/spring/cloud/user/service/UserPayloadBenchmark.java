@@ -0,0 +1,57 @@
+package br.dev.leandro.spring.cloud.user.service;
+
+import br.dev.leandro.spring.cloud.user.dto.UserDto;
+import br.dev.leandro.spring.cloud.user.dto.UserUpdateDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Montagem dos payloads de criação e atualização de usuário e a serialização enviada ao Keycloak.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserPayloadBenchmark {
+
+    private ObjectMapper objectMapper;
+    private UserDto userDto;
+    private UserUpdateDto userUpdateDto;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper().registerModule(new Jdk8Module());
+        userDto = new UserDto("maria.souza", "maria.souza@example.com", "Maria", "Souza", "s3nh@-F0rte",
+                "ORGANIZADOR", "Eventos Souza Ltda", "11 98888-7777", "12.345.678/0001-90");
+        userUpdateDto = new UserUpdateDto("maria.souza", Optional.of("maria@example.com"), Optional.of("Maria"),
+                Optional.empty(), Optional.of("n0va-s3nha"));
+    }
+
+    @Benchmark
+    public Map<String, Object> createPayload() {
+        return UserService.buildUserPayload(userDto);
+    }
+
+    @Benchmark
+    public byte[] createPayloadSerialized() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(UserService.buildUserPayload(userDto));
+    }
+
+    @Benchmark
+    public Map<String, Object> updatePayload() {
+        return UserService.buildUpdateUserPayload(userUpdateDto);
+    }
+
+    @Benchmark
+    public byte[] updatePayloadSerialized() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(UserService.buildUpdateUserPayload(userUpdateDto));
+    }
+}
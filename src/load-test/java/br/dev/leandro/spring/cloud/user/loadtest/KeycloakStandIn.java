@@ -0,0 +1,141 @@
+package br.dev.leandro.spring.cloud.user.loadtest;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+
+/**
+ * Keycloak (token, admin REST e JWKS) e serviço de eventos simulados em processo, com latência
+ * log-normal injetada. Também emite os JWT de administrador usados pelo gerador de carga,
+ * assinados com a chave publicada no JWKS simulado.
+ */
+class KeycloakStandIn implements AutoCloseable {
+
+    static final String REALM = "load-test";
+    static final String ORGANIZER_PATH = "/events/organizers";
+    private static final String USERS = "/admin/realms/" + REALM + "/users";
+
+    private final WireMockServer server;
+    private final RSAKey signingKey;
+
+    KeycloakStandIn(LoadTestSettings settings) throws JOSEException {
+        this.signingKey = new RSAKeyGenerator(2048).keyID("load-test").generate();
+        this.server = new WireMockServer(wireMockConfig()
+                .dynamicPort()
+                .containerThreads(200)
+                .asynchronousResponseEnabled(true)
+                .asynchronousResponseThreads(50)
+                .disableRequestJournal());
+        server.start();
+        stubKeycloak(settings.keycloakLatency(), settings.latencySigma());
+        stubEventService(settings.eventLatency(), settings.latencySigma());
+    }
+
+    String baseUrl() {
+        return server.baseUrl();
+    }
+
+    String issuer() {
+        return baseUrl() + "/realms/" + REALM;
+    }
+
+    /**
+     * Token de um administrador do {@code user-service}, válido por uma hora.
+     */
+    String adminToken() throws JOSEException {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(issuer())
+                .subject("load-test-admin")
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(Duration.ofHours(1))))
+                .claim("preferred_username", "load-test-admin")
+                .claim("realm_access", Map.of("roles", List.of("offline_access", "uma_authorization")))
+                .claim("resource_access", Map.of("user-service", Map.of("roles", List.of("admin"))))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(signingKey.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(signingKey));
+        return jwt.serialize();
+    }
+
+    private void stubKeycloak(Duration latency, double sigma) {
+        server.stubFor(get(urlPathEqualTo("/realms/" + REALM + "/protocol/openid-connect/certs"))
+                .willReturn(json(new JWKSet(signingKey.toPublicJWK()).toString())));
+        server.stubFor(post(urlPathEqualTo("/realms/" + REALM + "/protocol/openid-connect/token"))
+                .willReturn(json("{\"access_token\":\"load-test-admin-token\",\"expires_in\":300}")
+                        .withLogNormalRandomDelay(latency.toMillis(), sigma)));
+
+        server.stubFor(post(urlPathEqualTo(USERS))
+                .willReturn(aResponse()
+                        .withStatus(201)
+                        .withHeader("Location", baseUrl() + USERS + "/created-user")
+                        .withLogNormalRandomDelay(latency.toMillis(), sigma)));
+        server.stubFor(get(urlPathMatching("/admin/realms/" + REALM + "/roles/.*"))
+                .willReturn(json("{\"id\":\"role-id\",\"name\":\"role\"}")
+                        .withLogNormalRandomDelay(latency.toMillis(), sigma)));
+        server.stubFor(post(urlPathMatching(USERS + "/[^/]+/role-mappings/realm"))
+                .willReturn(aResponse().withStatus(204).withLogNormalRandomDelay(latency.toMillis(), sigma)));
+
+        server.stubFor(get(urlPathEqualTo(USERS + "/count"))
+                .willReturn(json("1000").withLogNormalRandomDelay(latency.toMillis(), sigma)));
+        server.stubFor(get(urlPathEqualTo(USERS))
+                .willReturn(json(userPage(10)).withLogNormalRandomDelay(latency.toMillis(), sigma)));
+        server.stubFor(get(urlPathMatching(USERS + "/[^/]+"))
+                .atPriority(10)
+                .willReturn(json(user(1)).withLogNormalRandomDelay(latency.toMillis(), sigma)));
+        server.stubFor(put(urlPathMatching(USERS + "/[^/]+(/reset-password)?"))
+                .willReturn(aResponse().withStatus(204).withLogNormalRandomDelay(latency.toMillis(), sigma)));
+    }
+
+    private void stubEventService(Duration latency, double sigma) {
+        server.stubFor(post(urlPathEqualTo(ORGANIZER_PATH))
+                .willReturn(aResponse().withStatus(201).withLogNormalRandomDelay(latency.toMillis(), sigma)));
+    }
+
+    private static ResponseDefinitionBuilder json(String body) {
+        return aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", "application/json")
+                .withBody(body);
+    }
+
+    private static String userPage(int size) {
+        return IntStream.rangeClosed(1, size)
+                .mapToObj(KeycloakStandIn::user)
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private static String user(int index) {
+        return """
+                {"id":"user-%1$d","username":"usuario%1$d","email":"usuario%1$d@example.com",\
+                "firstName":"Usuario","lastName":"Carga %1$d","enabled":true,"emailVerified":true,\
+                "createdTimestamp":1700000000000,"totp":false,"disableableCredentialTypes":[],\
+                "requiredActions":[],"notBefore":0,\
+                "access":{"manageGroupMembership":true,"view":true,"mapRoles":true,"impersonate":false,"manage":true}}\
+                """.formatted(index);
+    }
+
+    @Override
+    public void close() {
+        server.stop();
+    }
+}
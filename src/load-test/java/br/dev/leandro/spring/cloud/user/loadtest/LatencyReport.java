@@ -0,0 +1,108 @@
+package br.dev.leandro.spring.cloud.user.loadtest;
+
+import br.dev.leandro.spring.cloud.user.loadtest.LoadTestSettings.Operation;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latências de uma etapa em microssegundos, por operação. A latência é medida a partir do instante
+ * em que a requisição deveria ter sido enviada, não de quando foi de fato enviada, para que atrasos
+ * do próprio gerador de carga (coordinated omission) apareçam no resultado.
+ */
+class LatencyReport {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final int targetRps;
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+    private final Histogram all = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final AtomicLong dropped = new AtomicLong();
+    private Duration elapsed = Duration.ZERO;
+
+    LatencyReport(int targetRps) {
+        this.targetRps = targetRps;
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(operation, new AtomicLong());
+        }
+    }
+
+    void record(Operation operation, long intendedStartNanos, boolean success) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStartNanos), HIGHEST_TRACKABLE_MICROS);
+        latencies.get(operation).recordValue(micros);
+        all.recordValue(micros);
+        if (!success) {
+            errors.get(operation).incrementAndGet();
+        }
+    }
+
+    void dropped() {
+        dropped.incrementAndGet();
+    }
+
+    void finish(Duration elapsed) {
+        this.elapsed = elapsed;
+    }
+
+    long totalErrors() {
+        return errors.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    double achievedRps() {
+        return elapsed.isZero() ? 0 : all.getTotalCount() / (elapsed.toNanos() / 1e9);
+    }
+
+    double p99Millis() {
+        return all.getValueAtPercentile(99) / MICROS_PER_MILLI;
+    }
+
+    void printSummary(PrintStream out) {
+        out.printf("%n=== Alvo %d req/s: %.1f req/s atingidos em %ds, %d erros, %d descartadas pelo gerador ===%n",
+                targetRps, achievedRps(), elapsed.toSeconds(), totalErrors(), dropped.get());
+        out.printf("%-8s %8s %7s %9s %9s %9s %9s %9s%n", "op", "count", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        latencies.forEach((operation, histogram) -> printRow(out, operation.name(), histogram, errors.get(operation).get()));
+        printRow(out, "TOTAL", all, totalErrors());
+    }
+
+    /**
+     * Grava a distribuição de percentis de cada operação no formato {@code .hgrm}, que pode ser
+     * comparado entre execuções no HdrHistogram plotter.
+     */
+    void writeDistributions(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<Operation, Histogram> entry : latencies.entrySet()) {
+            write(directory.resolve("%s-%drps.hgrm".formatted(entry.getKey().name().toLowerCase(), targetRps)), entry.getValue());
+        }
+        write(directory.resolve("total-%drps.hgrm".formatted(targetRps)), all);
+    }
+
+    private static void write(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        }
+    }
+
+    private static void printRow(PrintStream out, String name, Histogram histogram, long errors) {
+        if (histogram.getTotalCount() == 0) {
+            return;
+        }
+        out.printf("%-8s %8d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n", name, histogram.getTotalCount(), errors,
+                histogram.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(90) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+                histogram.getMaxValue() / MICROS_PER_MILLI);
+    }
+}
@@ -0,0 +1,123 @@
+package br.dev.leandro.spring.cloud.user.loadtest;
+
+import br.dev.leandro.spring.cloud.user.loadtest.LoadTestSettings.Operation;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gerador de carga em modelo aberto: as requisições são disparadas na taxa alvo independentemente
+ * do tempo de resposta, como acontece com clientes reais. Se o limite de requisições simultâneas for
+ * atingido, os disparos excedentes são descartados e contabilizados no relatório.
+ */
+class LoadDriver implements AutoCloseable {
+
+    private static final int KNOWN_USERS = 1_000;
+
+    private final WebClient client;
+    private final ConnectionProvider connections;
+    private final List<Operation> weightedOperations = new ArrayList<>();
+    private final int maxInFlight;
+    private final AtomicLong sequence = new AtomicLong();
+
+    LoadDriver(String baseUrl, String accessToken, LoadTestSettings settings) {
+        this.maxInFlight = settings.maxInFlight();
+        this.connections = ConnectionProvider.builder("load-driver")
+                .maxConnections(maxInFlight)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.client = WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                .build();
+        settings.mix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weightedOperations.add(operation);
+            }
+        });
+    }
+
+    LatencyReport run(int rps, Duration duration) {
+        LatencyReport report = new LatencyReport(rps);
+        long intervalNanos = 1_000_000_000L / rps;
+        long requests = duration.toNanos() / intervalNanos;
+        long start = System.nanoTime();
+        Flux.interval(Duration.ofNanos(intervalNanos))
+                .take(requests)
+                .onBackpressureDrop(tick -> report.dropped())
+                .flatMap(tick -> {
+                    long intendedStart = start + (tick + 1) * intervalNanos;
+                    Operation operation = weightedOperations.get(ThreadLocalRandom.current().nextInt(weightedOperations.size()));
+                    return execute(operation)
+                            .onErrorReturn(false)
+                            .doOnNext(success -> report.record(operation, intendedStart, success));
+                }, maxInFlight)
+                .blockLast();
+        report.finish(Duration.ofNanos(System.nanoTime() - start));
+        return report;
+    }
+
+    private Mono<Boolean> execute(Operation operation) {
+        long n = sequence.incrementAndGet();
+        String userId = "user-" + ThreadLocalRandom.current().nextInt(1, KNOWN_USERS + 1);
+        return switch (operation) {
+            case CREATE -> client.post()
+                    .uri("/users/admin/create")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of(
+                            "username", "carga" + n,
+                            "email", "carga" + n + "@example.com",
+                            "firstName", "Carga",
+                            "lastName", "Usuario " + n,
+                            "password", "s3nh@-Carga",
+                            // Metade dos cadastros passa também pelo serviço de eventos
+                            "role", n % 2 == 0 ? "ORGANIZADOR" : "PARTICIPANTE",
+                            "organizationName", "Organizacao " + n,
+                            "contactPhone", "11 99999-0000",
+                            "documentNumber", "12345678900"))
+                    .exchangeToMono(LoadDriver::succeeded);
+            case READ -> client.get()
+                    .uri("/users/admin/{id}", userId)
+                    .exchangeToMono(LoadDriver::succeeded);
+            case UPDATE -> client.put()
+                    .uri("/users/admin/{id}", userId)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of(
+                            "username", "usuario" + n,
+                            "email", "usuario" + n + "@example.com",
+                            "firstName", "Atualizado",
+                            "password", "n0va-S3nha"))
+                    .exchangeToMono(LoadDriver::succeeded);
+            case LIST -> client.get()
+                    .uri(uri -> uri.path("/users/admin")
+                            .queryParam("search", "usuario")
+                            .queryParam("first", ThreadLocalRandom.current().nextInt(0, 100) * 10)
+                            .queryParam("max", 10)
+                            .build())
+                    .exchangeToMono(LoadDriver::succeeded);
+        };
+    }
+
+    private static Mono<Boolean> succeeded(ClientResponse response) {
+        return response.releaseBody().thenReturn(response.statusCode().is2xxSuccessful());
+    }
+
+    @Override
+    public void close() {
+        connections.dispose();
+    }
+}
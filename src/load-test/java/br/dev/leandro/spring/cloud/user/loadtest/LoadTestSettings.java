@@ -0,0 +1,63 @@
+package br.dev.leandro.spring.cloud.user.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parâmetros do teste de carga, lidos de propriedades de sistema {@code load.*}.
+ *
+ * @param rpsSteps        taxas alvo executadas em sequência, ex.: {@code 50,100,200}
+ * @param duration        duração medida de cada etapa
+ * @param warmup          aquecimento antes de cada etapa, descartado do relatório
+ * @param mix             peso de cada operação na carga
+ * @param keycloakLatency mediana da latência injetada nas respostas do Keycloak
+ * @param eventLatency    mediana da latência injetada nas respostas do serviço de eventos
+ * @param latencySigma    desvio da distribuição log-normal da latência injetada
+ * @param maxInFlight     requisições simultâneas máximas do gerador de carga
+ */
+record LoadTestSettings(
+        List<Integer> rpsSteps,
+        Duration duration,
+        Duration warmup,
+        Map<Operation, Integer> mix,
+        Duration keycloakLatency,
+        Duration eventLatency,
+        double latencySigma,
+        int maxInFlight) {
+
+    enum Operation {
+        CREATE, READ, UPDATE, LIST
+    }
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Arrays.stream(property("load.rps", "50,100,200").split(","))
+                        .map(String::trim)
+                        .map(Integer::parseInt)
+                        .toList(),
+                Duration.parse("PT" + property("load.duration", "30s")),
+                Duration.parse("PT" + property("load.warmup", "5s")),
+                parseMix(property("load.mix", "read=60,list=20,create=10,update=10")),
+                Duration.ofMillis(Long.parseLong(property("load.keycloak-latency-ms", "20"))),
+                Duration.ofMillis(Long.parseLong(property("load.event-latency-ms", "30"))),
+                Double.parseDouble(property("load.latency-sigma", "0.5")),
+                Integer.parseInt(property("load.max-in-flight", "2000")));
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    private static String property(String name, String defaultValue) {
+        String value = System.getProperty(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
@@ -0,0 +1,79 @@
+package br.dev.leandro.spring.cloud.user.loadtest;
+
+import br.dev.leandro.spring.cloud.user.SpringUserApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Teste de carga ponta a ponta: sobe a aplicação contra o {@link KeycloakStandIn} e executa cada taxa
+ * alvo de {@code load.rps} em sequência, imprimindo os percentis de latência por operação. A taxa em
+ * que o throughput atingido deixa de acompanhar o alvo, ou o p99 dispara, é o ponto de saturação.
+ * Os histogramas completos ficam em {@code target/load-test}.
+ * <p>
+ * Execução: {@code mvn -Pload-test test-compile exec:exec@load-test -Dload.rps=100,200,400}
+ */
+public class UserLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        Path output = Path.of(System.getProperty("load.output", "target/load-test"));
+        List<LatencyReport> reports = new ArrayList<>();
+
+        try (KeycloakStandIn standIn = new KeycloakStandIn(settings);
+             ConfigurableApplicationContext app = SpringApplication.run(SpringUserApplication.class,
+                     applicationArguments(standIn))) {
+            int port = ((ReactiveWebServerApplicationContext) app).getWebServer().getPort();
+            try (LoadDriver driver = new LoadDriver("http://localhost:" + port, standIn.adminToken(), settings)) {
+                for (int rps : settings.rpsSteps()) {
+                    System.out.printf("Aquecendo a %d req/s por %ds...%n", rps, settings.warmup().toSeconds());
+                    driver.run(rps, settings.warmup());
+                    System.out.printf("Medindo a %d req/s por %ds...%n", rps, settings.duration().toSeconds());
+                    LatencyReport report = driver.run(rps, settings.duration());
+                    report.printSummary(System.out);
+                    report.writeDistributions(output);
+                    reports.add(report);
+                }
+            }
+        }
+
+        System.out.printf("%n=== Resumo (latência injetada: Keycloak %dms, eventos %dms) ===%n",
+                settings.keycloakLatency().toMillis(), settings.eventLatency().toMillis());
+        System.out.printf("%10s %12s %9s %8s%n", "alvo", "atingido", "p99 ms", "erros");
+        for (int i = 0; i < reports.size(); i++) {
+            LatencyReport report = reports.get(i);
+            System.out.printf("%10d %12.1f %9.2f %8d%n", settings.rpsSteps().get(i), report.achievedRps(),
+                    report.p99Millis(), report.totalErrors());
+        }
+        System.out.println("Histogramas em " + output.toAbsolutePath());
+        System.exit(0);
+    }
+
+    /**
+     * Passadas como argumentos de linha de comando para terem precedência sobre o application.yml.
+     */
+    private static String[] applicationArguments(KeycloakStandIn standIn) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("server.port", 0);
+        properties.put("spring.keycloak.admin.auth-server-url", standIn.baseUrl());
+        properties.put("spring.keycloak.admin.realm", KeycloakStandIn.REALM);
+        properties.put("spring.keycloak.admin.client-id", "user-service-admin");
+        properties.put("spring.keycloak.admin.client-secret", "load-test");
+        properties.put("spring.security.oauth2.resourceserver.jwt.issuer-uri", standIn.issuer());
+        properties.put("spring.security.oauth2.resourceserver.jwt.jwk-set-uri", standIn.issuer() + "/protocol/openid-connect/certs");
+        properties.put("event.url", standIn.baseUrl());
+        properties.put("event.organizer-path", KeycloakStandIn.ORGANIZER_PATH);
+        // Sem RabbitMQ: a invalidação de cache entre réplicas não faz parte da medição
+        properties.put("spring.cloud.bus.enabled", false);
+        properties.put("logging.level.root", System.getProperty("load.log-level", "WARN"));
+        return properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+    }
+}
@@ -0,0 +1,39 @@
+package br.dev.leandro.spring.cloud.user.cache;
+
+import br.dev.leandro.spring.cloud.user.index.UserProjection;
+import lombok.Getter;
+import org.springframework.cloud.bus.event.Destination;
+import org.springframework.cloud.bus.event.RemoteApplicationEvent;
+
+import java.util.Optional;
+
+/**
+ * Evento do Spring Cloud Bus avisando as demais réplicas que o usuário foi alterado
+ * e deve ser removido do cache local. Com o índice local habilitado, leva também a projeção
+ * relida pela réplica de origem ({@code user}), ou {@code removed} se o usuário foi excluído,
+ * para que as demais atualizem o índice sem consultar o Keycloak.
+ */
+@Getter
+public class UserCacheInvalidationEvent extends RemoteApplicationEvent {
+
+    private String userId;
+    private UserProjection user;
+    private boolean removed;
+
+    @SuppressWarnings("unused")
+    public UserCacheInvalidationEvent() {
+        // Usado pelo Jackson na desserialização
+    }
+
+    public UserCacheInvalidationEvent(Object source, String originService, Destination destination, String userId) {
+        super(source, originService, destination);
+        this.userId = userId;
+    }
+
+    public UserCacheInvalidationEvent(Object source, String originService, Destination destination, String userId,
+                                      Optional<UserProjection> user) {
+        this(source, originService, destination, userId);
+        this.user = user.orElse(null);
+        this.removed = user.isEmpty();
+    }
+}
@@ -0,0 +1,82 @@
+package br.dev.leandro.spring.cloud.user.cache;
+
+import br.dev.leandro.spring.cloud.user.index.UserIndexService;
+import br.dev.leandro.spring.cloud.user.index.UserProjection;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.bus.BusProperties;
+import org.springframework.cloud.bus.event.Destination;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Optional;
+
+/**
+ * Invalida usuários no cache local e propaga a invalidação às outras réplicas pelo Spring Cloud Bus.
+ * Com o bus desabilitado apenas o cache local é invalidado. Com o índice local de usuários habilitado,
+ * só a réplica que fez a alteração relê o usuário do Keycloak; a projeção segue no evento e as demais
+ * a aplicam sem novas consultas.
+ */
+@Slf4j
+@Component
+public class UserCacheInvalidator {
+
+    private final UserLookupCache userLookupCache;
+    private final UserIndexService userIndexService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<BusProperties> busProperties;
+    private final ObjectProvider<Destination.Factory> destinationFactory;
+
+    public UserCacheInvalidator(UserLookupCache userLookupCache,
+                                UserIndexService userIndexService,
+                                ApplicationEventPublisher eventPublisher,
+                                ObjectProvider<BusProperties> busProperties,
+                                ObjectProvider<Destination.Factory> destinationFactory) {
+        this.userLookupCache = userLookupCache;
+        this.userIndexService = userIndexService;
+        this.eventPublisher = eventPublisher;
+        this.busProperties = busProperties;
+        this.destinationFactory = destinationFactory;
+    }
+
+    public void invalidate(String userId) {
+        userLookupCache.invalidate(userId);
+        Mono<Optional<UserProjection>> indexed = userIndexService.refresh(userId);
+        BusProperties bus = busProperties.getIfAvailable();
+        Destination.Factory destinations = destinationFactory.getIfAvailable();
+        if (bus == null || !bus.isEnabled() || destinations == null) {
+            indexed.subscribe();
+            return;
+        }
+        // Eventos remotos publicados localmente são encaminhados ao broker pelo bus. O envio é feito fora do
+        // event loop e uma falha do broker não deve afetar a operação que originou a invalidação.
+        indexed.map(user -> new UserCacheInvalidationEvent(this, bus.getId(), destinations.getDestination(null), userId, user))
+                .defaultIfEmpty(new UserCacheInvalidationEvent(this, bus.getId(), destinations.getDestination(null), userId))
+                .publishOn(Schedulers.boundedElastic())
+                .subscribe(event -> {
+                    try {
+                        eventPublisher.publishEvent(event);
+                    } catch (RuntimeException e) {
+                        log.warn("Falha ao propagar invalidação do usuário {} pelo bus: {}", userId, e.getMessage());
+                    }
+                });
+    }
+
+    @EventListener
+    public void onInvalidation(UserCacheInvalidationEvent event) {
+        BusProperties bus = busProperties.getIfAvailable();
+        if (bus != null && bus.getId().equals(event.getOriginService())) {
+            return;
+        }
+        log.debug("Invalidação do usuário {} recebida de {}", event.getUserId(), event.getOriginService());
+        userLookupCache.invalidate(event.getUserId());
+        if (event.getUser() != null) {
+            userIndexService.apply(event.getUserId(), Optional.of(event.getUser()));
+        } else if (event.isRemoved()) {
+            userIndexService.apply(event.getUserId(), Optional.empty());
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package br.dev.leandro.spring.cloud.user.cache;
+
+import br.dev.leandro.spring.cloud.user.dto.UserDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Consulta de usuário por id com deduplicação de chamadas concorrentes (single-flight):
+ * buscas simultâneas pelo mesmo id compartilham a mesma chamada ao Keycloak e o mesmo resultado.
+ * Opcionalmente mantém os usuários em cache por um TTL curto ({@code app.user-cache.ttl > 0}).
+ */
+@Slf4j
+@Component
+public class UserLookupCache {
+
+    private final ConcurrentMap<String, Mono<UserDto>> inFlight = new ConcurrentHashMap<>();
+    private final Cache<String, UserDto> users;
+    // Incrementado a cada invalidação, impede que uma busca iniciada antes dela grave um valor antigo
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Counter joined;
+    private final Counter loaded;
+
+    public UserLookupCache(MeterRegistry meterRegistry,
+                           @Value("${app.user-cache.ttl:0s}") Duration ttl,
+                           @Value("${app.user-cache.maximum-size:10000}") long maximumSize) {
+        if (ttl.isPositive()) {
+            this.users = Caffeine.newBuilder()
+                    .expireAfterWrite(ttl)
+                    .maximumSize(maximumSize)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, users, "users.lookup");
+        } else {
+            this.users = null;
+        }
+        this.joined = meterRegistry.counter("users.lookup.flights", "result", "joined");
+        this.loaded = meterRegistry.counter("users.lookup.flights", "result", "loaded");
+        log.info("Cache de usuários por id: {}", users != null ? "ttl=" + ttl : "desabilitado (apenas single-flight)");
+    }
+
+    public Mono<UserDto> get(String id, Function<String, Mono<UserDto>> loader) {
+        return Mono.defer(() -> {
+            UserDto cached = users != null ? users.getIfPresent(id) : null;
+            return cached != null ? Mono.just(cached) : flight(id, loader);
+        });
+    }
+
+    /**
+     * Como {@link #get}, mas ignora o usuário em cache: sempre consulta o Keycloak ou se junta a uma
+     * consulta já em andamento. O resultado atualiza o cache.
+     */
+    public Mono<UserDto> getFresh(String id, Function<String, Mono<UserDto>> loader) {
+        return Mono.defer(() -> flight(id, loader));
+    }
+
+    public void invalidate(String id) {
+        invalidations.incrementAndGet();
+        inFlight.remove(id);
+        if (users != null) {
+            users.invalidate(id);
+        }
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        inFlight.clear();
+        if (users != null) {
+            users.invalidateAll();
+        }
+    }
+
+    private Mono<UserDto> flight(String id, Function<String, Mono<UserDto>> loader) {
+        Mono<UserDto> existing = inFlight.get(id);
+        if (existing != null) {
+            joined.increment();
+            return existing;
+        }
+        return inFlight.computeIfAbsent(id, key -> newFlight(key, loader));
+    }
+
+    private Mono<UserDto> newFlight(String id, Function<String, Mono<UserDto>> loader) {
+        loaded.increment();
+        long generation = invalidations.get();
+        AtomicReference<Mono<UserDto>> self = new AtomicReference<>();
+        Mono<UserDto> flight = loader.apply(id)
+                .doOnNext(user -> {
+                    if (users != null && invalidations.get() == generation) {
+                        users.put(id, user);
+                    }
+                })
+                .doFinally(signal -> inFlight.remove(id, self.get()))
+                .cache();
+        self.set(flight);
+        return flight;
+    }
+}
@@ -0,0 +1,13 @@
+package br.dev.leandro.spring.cloud.user.config;
+
+import br.dev.leandro.spring.cloud.user.cache.UserCacheInvalidationEvent;
+import org.springframework.cloud.bus.jackson.RemoteApplicationEventScan;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registra os eventos próprios da aplicação que trafegam pelo Spring Cloud Bus.
+ */
+@Configuration
+@RemoteApplicationEventScan(basePackageClasses = UserCacheInvalidationEvent.class)
+public class BusConfig {
+}
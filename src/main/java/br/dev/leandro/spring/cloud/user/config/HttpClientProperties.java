@@ -0,0 +1,45 @@
+package br.dev.leandro.spring.cloud.user.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuração dos pools de conexão HTTP de cada serviço chamado pela aplicação.
+ */
+@Setter
+@Getter
+@Component
+@ConfigurationProperties(prefix = "app.http-client")
+public class HttpClientProperties {
+
+    private Pool keycloak = new Pool();
+    private Pool event = new Pool();
+
+    @Setter
+    @Getter
+    public static class Pool {
+        private int maxConnections = 50;
+        /**
+         * Requisições aguardando conexão livre antes de falhar imediatamente.
+         */
+        private int pendingAcquireMaxCount = 500;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        /**
+         * Intervalo da remoção em background de conexões ociosas ou expiradas.
+         */
+        private Duration evictionInterval = Duration.ofSeconds(30);
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration responseTimeout = Duration.ofSeconds(5);
+        private boolean keepAlive = true;
+        /**
+         * Negocia HTTP/2 (h2 sobre TLS ou h2c em texto puro) com fallback para HTTP/1.1.
+         */
+        private boolean http2 = false;
+    }
+}
@@ -0,0 +1,54 @@
+package br.dev.leandro.spring.cloud.user.config;
+
+import br.dev.leandro.spring.cloud.user.keycloak.JwkSetCache;
+import br.dev.leandro.spring.cloud.user.keycloak.JwkSetProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.OAuth2ResourceServerProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.net.URI;
+
+/**
+ * Decoder dos JWTs do resource server com o JWK set mantido pelo {@link JwkSetCache}, no lugar do
+ * decoder padrão do Spring Boot, que busca as chaves no Keycloak a cada {@code kid} desconhecido e
+ * depende dele na partida. Usa o {@code jwk-set-uri}, o {@code issuer-uri} e os
+ * {@code jws-algorithms} de {@code spring.security.oauth2.resourceserver.jwt}.
+ */
+@Slf4j
+@Configuration
+@Profile("!test")
+public class JwtDecoderConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public JwkSetCache jwkSetCache(@Qualifier("keycloakWebClient") WebClient webClient,
+                                   OAuth2ResourceServerProperties resourceServerProperties,
+                                   JwkSetProperties jwkSetProperties,
+                                   MeterRegistry meterRegistry) {
+        String jwkSetUri = resourceServerProperties.getJwt().getJwkSetUri();
+        log.info("JWK set em {}, ttl {}", jwkSetUri, jwkSetProperties.getTtl());
+        return new JwkSetCache(webClient, URI.create(jwkSetUri), jwkSetProperties, meterRegistry);
+    }
+
+    @Bean
+    public ReactiveJwtDecoder jwtDecoder(JwkSetCache jwkSetCache, OAuth2ResourceServerProperties resourceServerProperties) {
+        OAuth2ResourceServerProperties.Jwt jwt = resourceServerProperties.getJwt();
+        NimbusReactiveJwtDecoder.JwkSourceReactiveJwtDecoderBuilder builder = NimbusReactiveJwtDecoder.withJwkSource(jwkSetCache::select);
+        for (String algorithm : jwt.getJwsAlgorithms()) {
+            builder.jwsAlgorithm(SignatureAlgorithm.from(algorithm));
+        }
+        NimbusReactiveJwtDecoder decoder = builder.build();
+        decoder.setJwtValidator(jwt.getIssuerUri() != null
+                ? JwtValidators.createDefaultWithIssuer(jwt.getIssuerUri())
+                : JwtValidators.createDefault());
+        return decoder;
+    }
+}
@@ -0,0 +1,58 @@
+package br.dev.leandro.spring.cloud.user.config;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientRequestObservationContext;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.DefaultClientRequestObservationConvention;
+
+/**
+ * Observações das chamadas de um {@code WebClient} com a operação lógica (atributo
+ * {@link #OPERATION_ATTRIBUTE} da requisição) e a classe do status como tags. Publica um timer
+ * com o nome informado e um span por requisição, nomeado pelo serviço chamado e pela operação.
+ */
+public class OperationClientRequestObservationConvention extends DefaultClientRequestObservationConvention {
+
+    public static final String OPERATION_ATTRIBUTE = OperationClientRequestObservationConvention.class.getName() + ".operation";
+
+    private static final String UNKNOWN = "unknown";
+
+    private final String peer;
+
+    /**
+     * @param name nome do timer
+     * @param peer serviço chamado, prefixo do nome dos spans
+     */
+    public OperationClientRequestObservationConvention(String name, String peer) {
+        super(name);
+        this.peer = peer;
+    }
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ClientRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context)
+                .and(KeyValue.of("operation", operation(context.getRequest())))
+                .and(KeyValue.of("status.class", statusClass(context.getResponse())));
+    }
+
+    @Override
+    public String getContextualName(ClientRequestObservationContext context) {
+        String operation = operation(context.getRequest());
+        return UNKNOWN.equals(operation) ? super.getContextualName(context) : peer + " " + operation;
+    }
+
+    private static String operation(ClientRequest request) {
+        if (request == null) {
+            return UNKNOWN;
+        }
+        return request.attribute(OPERATION_ATTRIBUTE).map(Object::toString).orElse(UNKNOWN);
+    }
+
+    private static String statusClass(ClientResponse response) {
+        if (response == null) {
+            return "none";
+        }
+        return response.statusCode().value() / 100 + "xx";
+    }
+}
@@ -2,64 +2,110 @@ package br.dev.leandro.spring.cloud.user.config;
 
 import br.dev.leandro.spring.cloud.user.keycloak.KeycloakProperties;
 import br.dev.leandro.spring.cloud.user.utils.TokenUtils;
+import io.micrometer.observation.ObservationRegistry;
 import io.netty.channel.ChannelOption;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.ClientRequest;
 import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
 import reactor.netty.http.client.HttpClient;
-
-import java.time.Duration;
+import reactor.netty.resources.ConnectionProvider;
 
 @Slf4j
 @Configuration
 //@Profile("!test")  // Ativa para todos os perfis exceto "test"
 public class WebClientConfig {
 
-    @Bean
-    public ReactorClientHttpConnector reactorClientHttpConnector() {
-        return new ReactorClientHttpConnector(
-                HttpClient.create()
-                        .responseTimeout(Duration.ofSeconds(5))
-                        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5_000)
-        );
+    /**
+     * Pool de conexões dedicado ao Keycloak. As métricas são publicadas no registry global do
+     * Micrometer como {@code reactor.netty.connection.provider.*} com {@code name=keycloak}.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider keycloakConnectionProvider(HttpClientProperties httpClientProperties) {
+        return connectionProvider("keycloak", httpClientProperties.getKeycloak());
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider eventConnectionProvider(HttpClientProperties httpClientProperties) {
+        return connectionProvider("event", httpClientProperties.getEvent());
     }
 
     @Bean("keycloakWebClient")
     public WebClient keycloakWebClient(
             KeycloakProperties keycloakProperties,
-            ReactorClientHttpConnector connector
+            HttpClientProperties httpClientProperties,
+            @Qualifier("keycloakConnectionProvider") ConnectionProvider connectionProvider,
+            ObservationRegistry observationRegistry
     ) {
         log.info("KeycloakProperties URL: {}", keycloakProperties.getAuthServerUrl());
         return WebClient.builder()
                 .baseUrl(keycloakProperties.getAuthServerUrl())
-                .clientConnector(connector)
+                .clientConnector(connector(connectionProvider, httpClientProperties.getKeycloak(),
+                        keycloakProperties.getAuthServerUrl()))
+                .observationRegistry(observationRegistry)
+                .observationConvention(new OperationClientRequestObservationConvention("keycloak.client.requests", "keycloak"))
                 .build();
     }
 
     @Bean("eventWebClient")
     public WebClient eventWebClient(
-            @Value("${event.url}") String eventUrl
+            @Value("${event.url}") String eventUrl,
+            HttpClientProperties httpClientProperties,
+            @Qualifier("eventConnectionProvider") ConnectionProvider connectionProvider,
+            ObservationRegistry observationRegistry
     ) {
         log.info("Event URL: {}", eventUrl);
         return WebClient.builder()
                 .baseUrl(eventUrl)
+                .clientConnector(connector(connectionProvider, httpClientProperties.getEvent(), eventUrl))
+                .observationRegistry(observationRegistry)
+                .observationConvention(new OperationClientRequestObservationConvention("event.client.requests", "event"))
                 .filter(propagateToken())
                 .build();
     }
 
+    private static ConnectionProvider connectionProvider(String name, HttpClientProperties.Pool pool) {
+        log.info("Pool HTTP '{}': maxConnections={}, pendingAcquireMaxCount={}, maxIdleTime={}, maxLifeTime={}",
+                name, pool.getMaxConnections(), pool.getPendingAcquireMaxCount(), pool.getMaxIdleTime(), pool.getMaxLifeTime());
+        return ConnectionProvider.builder(name)
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getEvictionInterval())
+                .metrics(true)
+                .build();
+    }
+
+    private static ReactorClientHttpConnector connector(ConnectionProvider connectionProvider,
+                                                        HttpClientProperties.Pool pool,
+                                                        String baseUrl) {
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .responseTimeout(pool.getResponseTimeout())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) pool.getConnectTimeout().toMillis())
+                .keepAlive(pool.isKeepAlive());
+        if (pool.isHttp2()) {
+            httpClient = baseUrl.startsWith("https")
+                    ? httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure()
+                    : httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+        return new ReactorClientHttpConnector(httpClient);
+    }
+
     private ExchangeFilterFunction propagateToken() {
         return ExchangeFilterFunction.ofRequestProcessor(clientRequest ->
                 Mono.deferContextual(ctx -> {
                     String token = TokenUtils.getToken(ctx);
-                    log.debug("Token JWT propagado: {}...", token != null ? token.substring(0, 10) : "null");
+                    log.debug("Token JWT propagado para o serviço de eventos: {}", token != null);
                     if (token != null) {
                         ClientRequest newRequest = ClientRequest.from(clientRequest)
                                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
@@ -1,9 +1,13 @@
 package br.dev.leandro.spring.cloud.user.controller;
 
+import br.dev.leandro.spring.cloud.user.dto.BulkUserResult;
 import br.dev.leandro.spring.cloud.user.dto.UserDto;
 import br.dev.leandro.spring.cloud.user.dto.UserUpdateDto;
+import br.dev.leandro.spring.cloud.user.idempotency.IdempotencyStore;
+import br.dev.leandro.spring.cloud.user.service.UserBulkService;
+import br.dev.leandro.spring.cloud.user.service.UserExportService;
 import br.dev.leandro.spring.cloud.user.service.UserService;
-import io.micrometer.tracing.Span;
+import io.micrometer.observation.ObservationRegistry;
 import io.micrometer.tracing.Tracer;
 import io.micrometer.tracing.annotation.NewSpan;
 import jakarta.validation.Valid;
@@ -11,12 +15,15 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.observability.micrometer.Micrometer;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.Map;
 
 @Slf4j
@@ -28,41 +35,63 @@ public class UserController {
     @Value("${app.message:Config not loaded}")
     private String message;
 
+    @Value("${app.hello.delay:5s}")
+    private Duration helloDelay;
+
     private final UserService userService;
+    private final UserBulkService userBulkService;
+    private final UserExportService userExportService;
+    private final IdempotencyStore idempotencyStore;
     private final Tracer tracer;
-
-    public UserController(UserService userService, Tracer tracer) {
+    private final ObservationRegistry observationRegistry;
+
+    public UserController(UserService userService,
+                          UserBulkService userBulkService,
+                          UserExportService userExportService,
+                          IdempotencyStore idempotencyStore,
+                          Tracer tracer,
+                          ObservationRegistry observationRegistry) {
         this.userService = userService;
+        this.userBulkService = userBulkService;
+        this.userExportService = userExportService;
+        this.idempotencyStore = idempotencyStore;
         this.tracer = tracer;
+        this.observationRegistry = observationRegistry;
     }
 
     @PostMapping("/admin/create")
-    public Mono<ResponseEntity<String>> createUser(@Valid @RequestBody UserDto request) {
-        return userService.createUser(request)
-                .then(Mono.just(ResponseEntity.status(HttpStatus.CREATED).body("Usuário criado com sucesso.")))
-                .onErrorResume(e -> Mono.just(ResponseEntity.status(500).body("Erro ao criar usuário: " + e.getMessage())));
+    public Mono<ResponseEntity<String>> createUser(
+            @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @Valid @RequestBody UserDto request) {
+        return idempotencyStore.execute(idempotencyKey, "create-user", null, request, () -> userService.createUser(request)
+                .then(Mono.just(ResponseEntity.status(HttpStatus.CREATED).body("Usuário criado com sucesso."))));
+    }
+
+    @PostMapping(value = "/admin/bulk",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BulkUserResult> createUsers(@RequestBody Flux<UserDto> request) {
+        return userBulkService.createUsers(request);
     }
 
     @PutMapping("/admin/{id}")
-    public Mono<ResponseEntity<String>> updateUser(@PathVariable("id") String id, @Valid @RequestBody UserUpdateDto userDto) {
-        return userService.updateUser(id, userDto)
-                .then(Mono.just(ResponseEntity.status(HttpStatus.OK).body("Usuário atualizado com sucesso!"))
-                        .onErrorResume(RuntimeException.class, e ->
-                                Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Erro: " + e.getMessage()))
-                        )
-                        .onErrorResume(Exception.class, e ->
-                                Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erro interno: " + e.getMessage()))));
+    public Mono<ResponseEntity<String>> updateUser(
+            @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @PathVariable("id") String id,
+            @Valid @RequestBody UserUpdateDto userDto) {
+        return idempotencyStore.execute(idempotencyKey, "update-user", id, userDto, () -> userService.updateUser(id, userDto)
+                .then(Mono.just(ResponseEntity.ok("Usuário atualizado com sucesso!"))));
     }
 
     @DeleteMapping("/admin/{id}")
     public Mono<ResponseEntity<String>> deleteUser(@PathVariable("id") String id) {
         return userService.deleteUser(id)
-                .then(Mono.just(ResponseEntity.status(HttpStatus.OK).body("Usuário deletado com sucesso!"))
-                        .onErrorResume(RuntimeException.class, e ->
-                                Mono.just(ResponseEntity.status(500).body("Erro: " + e.getMessage()))
-                        )
-                        .onErrorResume(Exception.class, e ->
-                                Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erro interno: " + e.getMessage()))));
+                .then(Mono.just(ResponseEntity.ok("Usuário deletado com sucesso!")));
+    }
+
+    @GetMapping(value = "/admin/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UserDto> exportUsers(@RequestParam(defaultValue = "") String search) {
+        return userExportService.exportUsers(search);
     }
 
     @GetMapping("/admin/{id}")
@@ -70,14 +99,7 @@ public class UserController {
 
         return userService.findUserById(id)
                 .map(ResponseEntity::ok)
-                .defaultIfEmpty(ResponseEntity.notFound().build())
-                .onErrorResume(WebClientResponseException.class, e -> {
-                    if (e.getStatusCode().is4xxClientError()) {
-                        return Mono.just(ResponseEntity.status(e.getStatusCode()).body(null));
-                    } else {
-                        return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null));
-                    }
-                });
+                .defaultIfEmpty(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/admin")
@@ -87,10 +109,7 @@ public class UserController {
             @RequestParam(defaultValue = "10") Integer max) {
 
         return userService.findAllUsers(search, first, max)
-                .map(ResponseEntity::ok)
-                .onErrorResume(WebClientResponseException.class, e ->
-                        Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                                .body(Map.of("error", "Erro ao buscar usuários"))));
+                .map(ResponseEntity::ok);
     }
 
 
@@ -104,18 +123,12 @@ public class UserController {
     }
 
     @GetMapping("/public/hello")
-    public String hello() {
-        // Criando um span manualmente
-        Span newSpan = tracer.nextSpan().name("hello-span").start();
-        try {
-            // Simulando um processamento
-            Thread.sleep(5000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        } finally {
-            newSpan.end();
-        }
-        return "Hello from spring-user!";
+    public Mono<String> hello() {
+        // Processamento simulado com timer do Reactor: o event loop fica livre durante a espera
+        return Mono.delay(helloDelay)
+                .thenReturn("Hello from spring-user!")
+                .name("hello-span")
+                .tap(Micrometer.observation(observationRegistry));
     }
 
     // Endpoint Protegido para Administradores
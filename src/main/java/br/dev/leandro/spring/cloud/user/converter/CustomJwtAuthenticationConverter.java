@@ -1,5 +1,9 @@
 package br.dev.leandro.spring.cloud.user.converter;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.convert.converter.Converter;
@@ -8,49 +12,112 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Converter that extracts roles from JWT token and converts them to Spring Security authorities.
  * This implementation is designed to be reusable across different services by using the
  * application name from Spring's configuration.
+ * <p>
+ * O front-end reenvia o mesmo token em várias requisições, então o resultado fica em cache pelo
+ * {@code jti} (ou pelo próprio token, quando não há {@code jti}) até o {@code exp} do token, e no
+ * máximo por {@code app.jwt-authorities-cache.max-ttl}. As listas de authorities são imutáveis e
+ * compartilhadas entre tokens com as mesmas roles. {@code app.jwt-authorities-cache.maximum-size=0}
+ * desabilita o cache por token.
  */
 @Slf4j
 @Component
 public class CustomJwtAuthenticationConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
 
+    private static final int INTERNED_ROLE_SETS = 1_000;
+
     private final String serviceName;
+    private final Cache<String, CachedAuthorities> tokens;
+    private final Cache<List<String>, List<GrantedAuthority>> internedAuthorities;
 
-    public CustomJwtAuthenticationConverter(@Value("${spring.keycloak.admin.client-id:}") String applicationName) {
+    public CustomJwtAuthenticationConverter(@Value("${spring.keycloak.admin.client-id:}") String applicationName,
+                                            @Value("${app.jwt-authorities-cache.maximum-size:10000}") long maximumSize,
+                                            @Value("${app.jwt-authorities-cache.max-ttl:5m}") Duration maxTtl,
+                                            MeterRegistry meterRegistry) {
         // If application name is not set, use a default value
         this.serviceName = "user-service";
+        if (maximumSize > 0) {
+            this.tokens = Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    // Expiração fixa: com expiração por entrada o Caffeine reagenda cada leitura na timer wheel.
+                    // O exp de cada token é conferido na leitura.
+                    .expireAfterWrite(maxTtl)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, tokens, "jwt.authorities");
+        } else {
+            this.tokens = null;
+        }
+        this.internedAuthorities = Caffeine.newBuilder()
+                .maximumSize(INTERNED_ROLE_SETS)
+                .build();
         log.info("Initialized JWT converter for service: {}", serviceName);
     }
 
     @Override
     public Collection<GrantedAuthority> convert(Jwt jwt) {
+        if (tokens == null) {
+            return extractAuthorities(jwt);
+        }
+        String key = jwt.getId() != null ? jwt.getId() : jwt.getTokenValue();
+        CachedAuthorities cached = tokens.getIfPresent(key);
+        if (cached != null && System.currentTimeMillis() < cached.expiresAtMillis()) {
+            return cached.authorities();
+        }
+        // getExpiresAt passa pelo ConversionService das claims, então só é lido na falta
+        Instant expiresAt = jwt.getExpiresAt();
+        List<GrantedAuthority> authorities = extractAuthorities(jwt);
+        if (expiresAt != null && expiresAt.isAfter(Instant.now())) {
+            tokens.put(key, new CachedAuthorities(authorities, expiresAt.toEpochMilli()));
+        }
+        return authorities;
+    }
+
+    private List<GrantedAuthority> extractAuthorities(Jwt jwt) {
         try {
             log.debug("Converting JWT to authorities for service: {}", serviceName);
 
             // Try to extract roles from resource_access claim
-            Collection<GrantedAuthority> resourceAuthorities = extractResourceAccessRoles(jwt);
-            if (!resourceAuthorities.isEmpty()) {
-                return resourceAuthorities;
+            List<String> resourceRoles = extractResourceAccessRoles(jwt);
+            if (!resourceRoles.isEmpty()) {
+                log.debug("Extracted {} authorities from resource_access.{}.roles", resourceRoles.size(), serviceName);
+                return toAuthorities(resourceRoles);
             }
 
             // Fallback to realm_access if resource_access doesn't have our roles
-            return extractRealmAccessRoles(jwt);
+            List<String> realmRoles = extractRealmAccessRoles(jwt);
+            log.debug("Extracted {} authorities from realm_access.roles", realmRoles.size());
+            return toAuthorities(realmRoles);
         } catch (Exception e) {
             log.warn("Error extracting authorities from JWT: {}", e.getMessage());
             return Collections.emptyList();
         }
     }
 
-    private Collection<GrantedAuthority> extractResourceAccessRoles(Jwt jwt) {
+    /**
+     * Mesma lista imutável para o mesmo conjunto de roles, seja qual for o token.
+     */
+    private List<GrantedAuthority> toAuthorities(List<String> roles) {
+        if (roles.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return internedAuthorities.get(List.copyOf(roles), key -> key.stream()
+                .map(String::toUpperCase)
+                .<GrantedAuthority>map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                .toList());
+    }
+
+    private List<String> extractResourceAccessRoles(Jwt jwt) {
         Map<String, Object> resourceAccess = jwt.getClaimAsMap("resource_access");
         if (resourceAccess == null || !resourceAccess.containsKey(serviceName)) {
             log.debug("No resource_access claim found for service: {}", serviceName);
@@ -64,24 +131,14 @@ public class CustomJwtAuthenticationConverter implements Converter<Jwt, Collecti
             }
 
             List<String> roles = (List<String>) serviceAccess.get("roles");
-            if (roles == null || roles.isEmpty()) {
-                return Collections.emptyList();
-            }
-
-            Collection<GrantedAuthority> authorities = roles.stream()
-                    .map(String::toUpperCase)
-                    .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
-                    .collect(Collectors.toList());
-
-            log.debug("Extracted {} authorities from resource_access.{}.roles", authorities.size(), serviceName);
-            return authorities;
+            return roles != null ? roles : Collections.emptyList();
         } catch (ClassCastException e) {
             log.warn("Invalid format in resource_access claim for service {}: {}", serviceName, e.getMessage());
             return Collections.emptyList();
         }
     }
 
-    private Collection<GrantedAuthority> extractRealmAccessRoles(Jwt jwt) {
+    private List<String> extractRealmAccessRoles(Jwt jwt) {
         Map<String, Object> realmAccess = jwt.getClaimAsMap("realm_access");
         if (realmAccess == null || !realmAccess.containsKey("roles")) {
             log.debug("No realm_access.roles claim found in JWT");
@@ -90,20 +147,13 @@ public class CustomJwtAuthenticationConverter implements Converter<Jwt, Collecti
 
         try {
             List<String> roles = (List<String>) realmAccess.get("roles");
-            if (roles == null || roles.isEmpty()) {
-                return Collections.emptyList();
-            }
-
-            Collection<GrantedAuthority> authorities = roles.stream()
-                    .map(String::toUpperCase)
-                    .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
-                    .collect(Collectors.toList());
-
-            log.debug("Extracted {} authorities from realm_access.roles", authorities.size());
-            return authorities;
+            return roles != null ? roles : Collections.emptyList();
         } catch (ClassCastException e) {
             log.warn("Invalid format in realm_access claim: {}", e.getMessage());
             return Collections.emptyList();
         }
     }
+
+    private record CachedAuthorities(List<GrantedAuthority> authorities, long expiresAtMillis) {
+    }
 }
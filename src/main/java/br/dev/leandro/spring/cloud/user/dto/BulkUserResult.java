@@ -0,0 +1,33 @@
+package br.dev.leandro.spring.cloud.user.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Resultado do processamento de um item do cadastro em lote.
+ * O {@code index} corresponde à posição do usuário no corpo da requisição.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkUserResult(
+        long index,
+        String username,
+        Status status,
+        String error) {
+
+    public enum Status {
+        CREATED,
+        INVALID,
+        FAILED
+    }
+
+    public static BulkUserResult created(long index, String username) {
+        return new BulkUserResult(index, username, Status.CREATED, null);
+    }
+
+    public static BulkUserResult invalid(long index, String username, String error) {
+        return new BulkUserResult(index, username, Status.INVALID, error);
+    }
+
+    public static BulkUserResult failed(long index, String username, String error) {
+        return new BulkUserResult(index, username, Status.FAILED, error);
+    }
+}
@@ -1,8 +1,14 @@
 package br.dev.leandro.spring.cloud.user.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 
+/**
+ * Usuário recebido nas requisições de criação e devolvido nas consultas. Na leitura das respostas
+ * do Keycloak os campos da representação completa que não existem aqui são descartados.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
 public record UserDto(
 
         @NotBlank(message = "O username não pode estar vazio.")
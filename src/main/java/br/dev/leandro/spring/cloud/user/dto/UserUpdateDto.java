@@ -9,8 +9,7 @@ public record UserUpdateDto(
         @NotBlank(message = "O username não pode estar vazio.")
         String username,
 
-        @Email(message = "O e-mail deve ser válido.")
-        Optional<String> email,
+        Optional<@Email(message = "O e-mail deve ser válido.") String> email,
 
         Optional<String> firstName,
 
@@ -0,0 +1,7 @@
+package br.dev.leandro.spring.cloud.user.exception;
+
+public class AdminCredentialsException extends RuntimeException {
+    public AdminCredentialsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package br.dev.leandro.spring.cloud.user.exception;
+
+public class IdempotencyKeyReuseException extends RuntimeException {
+    public IdempotencyKeyReuseException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package br.dev.leandro.spring.cloud.user.exception;
+
+public class InvalidRequestException extends RuntimeException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package br.dev.leandro.spring.cloud.user.exception;
+
+public class InvalidTokenException extends RuntimeException {
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package br.dev.leandro.spring.cloud.user.exception;
+
+public class KeycloakServerException extends RuntimeException {
+    public KeycloakServerException(String message) {
+        super(message);
+    }
+}
@@ -1,70 +1,174 @@
 package br.dev.leandro.spring.cloud.user.exception.handler;
 
+import br.dev.leandro.spring.cloud.user.exception.AdminCredentialsException;
+import br.dev.leandro.spring.cloud.user.exception.AssignRoleException;
+import br.dev.leandro.spring.cloud.user.exception.IdempotencyKeyReuseException;
+import br.dev.leandro.spring.cloud.user.exception.InvalidRequestException;
+import br.dev.leandro.spring.cloud.user.exception.InvalidTokenException;
+import br.dev.leandro.spring.cloud.user.exception.KeycloakServerException;
 import br.dev.leandro.spring.cloud.user.exception.ResourceNotFoundException;
-import jakarta.servlet.http.HttpServletRequest;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.web.ErrorResponse;
+import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
 
+import java.net.URI;
 import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Converte as exceções dos controllers em respostas RFC 7807 ({@code application/problem+json}).
+ * O {@code detail} vem da mensagem das exceções da aplicação, que já são escritas para o cliente;
+ * falhas inesperadas recebem um texto fixo e só o log carrega a causa.
+ */
 @Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
     public static final String TIMESTAMP = "timestamp";
-    public static final String PATH = "path";
+    public static final String ERRORS = "errors";
+
+    private static final String INTERNAL_ERROR = "Erro interno ao processar a requisição.";
+    private static final String INVALID_ARGUMENT = "Invalid argument provided";
+    private static final String KEYCLOAK_UNAVAILABLE = "Serviço de identidade indisponível, tente novamente mais tarde.";
+    private static final String KEYCLOAK_FORBIDDEN = "Operação não permitida ao serviço pelo Keycloak.";
+    private static final Set<Integer> CLIENT_STATUSES = Set.of(
+            HttpStatus.BAD_REQUEST.value(), HttpStatus.NOT_FOUND.value(), HttpStatus.CONFLICT.value());
 
     @ExceptionHandler(AccessDeniedException.class)
-    public ResponseEntity<ErrorResponse> handleAccessDeniedException(AccessDeniedException e) {
-        ErrorResponse errorResponse = ErrorResponse.builder(e, HttpStatus.FORBIDDEN, e.getMessage())
-                .build();
-        log.error("Access denied: {}", errorResponse);
-        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
+    public ResponseEntity<ProblemDetail> handleAccessDeniedException(AccessDeniedException e, ServerWebExchange exchange) {
+        return problem(HttpStatus.FORBIDDEN, "Acesso negado.", exchange);
     }
 
     @ExceptionHandler(AuthenticationException.class)
-    public ResponseEntity<ErrorResponse> handleAuthenticationException(AuthenticationException e) {
-        ErrorResponse errorResponse = ErrorResponse.builder(e, HttpStatus.UNAUTHORIZED, e.getMessage())
-                .build();
-        log.error("Authentication exception: {}", errorResponse);
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
+    public ResponseEntity<ProblemDetail> handleAuthenticationException(AuthenticationException e, ServerWebExchange exchange) {
+        return problem(HttpStatus.UNAUTHORIZED, e.getMessage(), exchange);
     }
 
-    @ExceptionHandler(Exception.class)
-    public ResponseEntity<ErrorResponse> handleException(Exception e, HttpServletRequest request) {
-        ErrorResponse errorResponse = ErrorResponse.builder(e, HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage())
-                .property(TIMESTAMP, Instant.now())
-                .property(PATH, request.getRequestURI())
-                .build();
-
-        log.error("Error exception: {}", errorResponse);
-        log.error("Exception: {}", e);
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<ProblemDetail> handleResourceNotFound(ResourceNotFoundException e, ServerWebExchange exchange) {
+        return problem(HttpStatus.NOT_FOUND, e.getMessage(), exchange);
     }
 
-    @ExceptionHandler(ResourceNotFoundException.class)
-    public ResponseEntity<ErrorResponse> handleResourceNotFound(ResourceNotFoundException ex, HttpServletRequest request) {
-        ErrorResponse errorResponse = ErrorResponse.builder(ex, HttpStatus.NOT_FOUND, ex.getMessage())
-                .property(TIMESTAMP, Instant.now())
-                .property(PATH, request.getRequestURI())
-                .build();
-        log.error("Resource not found: {}", errorResponse);
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ProblemDetail> handleInvalidRequest(InvalidRequestException e, ServerWebExchange exchange) {
+        return problem(HttpStatus.BAD_REQUEST, e.getMessage(), exchange);
     }
 
+    /**
+     * Pode vir de bibliotecas (Jackson, codificação de URI), com detalhes internos na mensagem; só o log
+     * a carrega.
+     */
     @ExceptionHandler(IllegalArgumentException.class)
-    public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException ex, HttpServletRequest request) {
-        ErrorResponse errorResponse = ErrorResponse.builder(ex, HttpStatus.BAD_REQUEST, "Invalid argument provided")
-                .property(TIMESTAMP, Instant.now())
-                .property(PATH, request.getRequestURI())
-                .build();
-        log.error("Illegal argument: {}", errorResponse);
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    public ResponseEntity<ProblemDetail> handleIllegalArgumentException(IllegalArgumentException e, ServerWebExchange exchange) {
+        log.warn("Argumento inválido em {}: {}", exchange.getRequest().getPath(), e.getMessage());
+        return problem(HttpStatus.BAD_REQUEST, INVALID_ARGUMENT, exchange);
+    }
+
+    @ExceptionHandler(IdempotencyKeyReuseException.class)
+    public ResponseEntity<ProblemDetail> handleIdempotencyKeyReuse(IdempotencyKeyReuseException e, ServerWebExchange exchange) {
+        return problem(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage(), exchange);
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ProblemDetail> handleValidation(WebExchangeBindException e, ServerWebExchange exchange) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (FieldError fieldError : e.getFieldErrors()) {
+            errors.putIfAbsent(fieldError.getField(), fieldError.getDefaultMessage());
+        }
+        ResponseEntity<ProblemDetail> response = problem(HttpStatus.BAD_REQUEST, "Requisição inválida.", exchange);
+        response.getBody().setProperty(ERRORS, errors);
+        return response;
+    }
+
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ProblemDetail> handleInput(ServerWebInputException e, ServerWebExchange exchange) {
+        return problem(HttpStatus.BAD_REQUEST, e.getReason(), exchange);
+    }
+
+    @ExceptionHandler({CallNotPermittedException.class, BulkheadFullException.class})
+    public ResponseEntity<ProblemDetail> handleRejected(RuntimeException e, ServerWebExchange exchange) {
+        log.warn("Chamada ao Keycloak rejeitada em {}: {}", exchange.getRequest().getPath(), e.getMessage());
+        return problem(HttpStatus.SERVICE_UNAVAILABLE, KEYCLOAK_UNAVAILABLE, exchange);
+    }
+
+    /**
+     * Falhas do Keycloak, inclusive o token administrativo ou o client_secret do serviço rejeitados:
+     * o problema é do serviço e não das credenciais do cliente, por isso 502 em vez de 401.
+     */
+    @ExceptionHandler({KeycloakServerException.class, AssignRoleException.class, InvalidTokenException.class,
+            AdminCredentialsException.class})
+    public ResponseEntity<ProblemDetail> handleUpstream(RuntimeException e, ServerWebExchange exchange) {
+        log.error("Falha do Keycloak em {}: {}", exchange.getRequest().getPath(), e.getMessage());
+        return problem(HttpStatus.BAD_GATEWAY, e.getMessage(), exchange);
+    }
+
+    /**
+     * 403 do Keycloak ({@link WebClientErrorHandler}): a conta de serviço não tem permissão para a
+     * operação, um problema de configuração do serviço, por isso 502 em vez de 401 ou 403.
+     */
+    @ExceptionHandler(org.apache.http.auth.AuthenticationException.class)
+    public ResponseEntity<ProblemDetail> handleKeycloakForbidden(org.apache.http.auth.AuthenticationException e,
+                                                                 ServerWebExchange exchange) {
+        log.error("Keycloak negou a operação em {}: {}", exchange.getRequest().getPath(), e.getMessage());
+        return problem(HttpStatus.BAD_GATEWAY, KEYCLOAK_FORBIDDEN, exchange);
+    }
+
+    /**
+     * Respostas de erro lidas com {@code retrieve()}. Só 400, 404 e 409 dizem respeito ao que o cliente
+     * pediu; 401 e 403 recusam a conta de serviço, como em {@link #handleKeycloakForbidden}, e os demais
+     * são falhas do Keycloak, por isso 502.
+     */
+    @ExceptionHandler(WebClientResponseException.class)
+    public ResponseEntity<ProblemDetail> handleWebClientResponse(WebClientResponseException e, ServerWebExchange exchange) {
+        HttpStatusCode status = e.getStatusCode();
+        if (CLIENT_STATUSES.contains(status.value())) {
+            return problem(status, null, exchange);
+        }
+        log.error("Falha do Keycloak em {}: status {}", exchange.getRequest().getPath(), status.value());
+        if (status.value() == HttpStatus.UNAUTHORIZED.value() || status.value() == HttpStatus.FORBIDDEN.value()) {
+            return problem(HttpStatus.BAD_GATEWAY, KEYCLOAK_FORBIDDEN, exchange);
+        }
+        return problem(HttpStatus.BAD_GATEWAY, KEYCLOAK_UNAVAILABLE, exchange);
+    }
+
+    /**
+     * Keycloak inalcançável (conexão recusada ou encerrada) ou sem resposta dentro do tempo de cada
+     * tentativa ({@code app.resilience.attempt-timeout}).
+     */
+    @ExceptionHandler({WebClientRequestException.class, TimeoutException.class})
+    public ResponseEntity<ProblemDetail> handleUnreachable(Exception e, ServerWebExchange exchange) {
+        log.error("Keycloak sem resposta em {}: {}", exchange.getRequest().getPath(), e.getMessage());
+        HttpStatus status = e instanceof TimeoutException ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.BAD_GATEWAY;
+        return problem(status, KEYCLOAK_UNAVAILABLE, exchange);
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ProblemDetail> handleException(Exception e, ServerWebExchange exchange) {
+        log.error("Erro inesperado em {} {}", exchange.getRequest().getMethod(), exchange.getRequest().getPath(), e);
+        return problem(HttpStatus.INTERNAL_SERVER_ERROR, INTERNAL_ERROR, exchange);
+    }
+
+    private static ResponseEntity<ProblemDetail> problem(HttpStatusCode status, String detail, ServerWebExchange exchange) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(status, detail);
+        problem.setInstance(URI.create(exchange.getRequest().getPath().value()));
+        problem.setProperty(TIMESTAMP, Instant.now());
+        return ResponseEntity.status(status).body(problem);
     }
 }
@@ -1,5 +1,7 @@
 package br.dev.leandro.spring.cloud.user.exception.handler;
 
+import br.dev.leandro.spring.cloud.user.exception.InvalidTokenException;
+import br.dev.leandro.spring.cloud.user.exception.KeycloakServerException;
 import br.dev.leandro.spring.cloud.user.exception.ResourceNotFoundException;
 import org.apache.http.auth.AuthenticationException;
 import org.springframework.http.HttpStatus;
@@ -20,10 +22,10 @@ public class WebClientErrorHandler {
                 return Mono.error(new AuthenticationException("Acesso negado."));
             }
             if (status == HttpStatus.UNAUTHORIZED) {
-                return Mono.error(new RuntimeException("Token inválido ou expirado."));
+                return Mono.error(new InvalidTokenException("Token inválido ou expirado."));
             }
             if (status.is5xxServerError()) {
-                return Mono.error(new RuntimeException(errorMessage));
+                return Mono.error(new KeycloakServerException(errorMessage));
             }
             return Mono.error(ex);  // Tratamento genérico para outros erros
         });
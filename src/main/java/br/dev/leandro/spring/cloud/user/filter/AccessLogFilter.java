@@ -0,0 +1,65 @@
+package br.dev.leandro.spring.cloud.user.filter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Access log das requisições HTTP. Respostas 5xx, falhas sem resposta e requisições mais lentas
+ * que {@code app.logging.access.slow-threshold} são sempre registradas em WARN; as demais entram
+ * em INFO apenas na fração definida por {@code app.logging.access.sample-rate}.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AccessLogFilter implements WebFilter {
+
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    public AccessLogFilter(@Value("${app.logging.access.sample-rate:0.01}") double sampleRate,
+                           @Value("${app.logging.access.slow-threshold:1s}") Duration slowThreshold) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> log(exchange, signal, System.nanoTime() - start));
+    }
+
+    private void log(ServerWebExchange exchange, SignalType signal, long elapsedNanos) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        boolean failed = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+        boolean slow = elapsedNanos >= slowThresholdNanos;
+        if (failed || slow) {
+            if (log.isWarnEnabled()) {
+                log.warn("{} {} -> {} em {} ms", exchange.getRequest().getMethod(), exchange.getRequest().getPath(),
+                        statusOf(status, signal), elapsedNanos / 1_000_000);
+            }
+        } else if (log.isInfoEnabled() && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.info("{} {} -> {} em {} ms", exchange.getRequest().getMethod(), exchange.getRequest().getPath(),
+                    statusOf(status, signal), elapsedNanos / 1_000_000);
+        }
+    }
+
+    private static Object statusOf(HttpStatusCode status, SignalType signal) {
+        if (status != null) {
+            return status.value();
+        }
+        return signal == SignalType.ON_ERROR ? "erro" : 200;
+    }
+}
@@ -16,7 +16,7 @@ public class TokenCaptureFilter implements WebFilter {
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
         String token = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
-        log.debug("Token capturado no filtro: {}...", token != null ? token.substring(0, 10) : "null");
+        log.debug("Header Authorization presente: {}", token != null);
         if(token != null && token.startsWith("Bearer ")){
             token = token.substring(7);
             return   chain.filter(exchange).contextWrite(TokenUtils.withToken(token));
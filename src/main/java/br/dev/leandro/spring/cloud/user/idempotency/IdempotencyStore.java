@@ -0,0 +1,137 @@
+package br.dev.leandro.spring.cloud.user.idempotency;
+
+import br.dev.leandro.spring.cloud.user.exception.IdempotencyKeyReuseException;
+import br.dev.leandro.spring.cloud.user.exception.InvalidRequestException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Respostas das operações com header {@code Idempotency-Key}, para que o cliente possa repetir a
+ * requisição (timeout, queda de conexão) sem repetir as chamadas ao Keycloak e ao serviço de eventos.
+ * A chave vale por operação e por usuário autenticado. Enquanto a primeira execução está em
+ * andamento, as repetições aguardam o mesmo resultado; depois dela, recebem a resposta gravada com o
+ * header {@code Idempotent-Replayed}, até o ttl. Uma execução com erro é descartada e pode ser
+ * repetida; a mesma chave com outro corpo é rejeitada.
+ * <p>
+ * Do corpo da requisição é guardado apenas um hash SHA-256, nunca o conteúdo (que pode ter senha).
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<String, Execution> executions;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public IdempotencyStore(ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${app.idempotency.maximum-size:10000}") long maximumSize) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.executions = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, executions, "idempotency");
+    }
+
+    /**
+     * Executa {@code action} uma única vez por chave. Sem chave, apenas executa.
+     *
+     * @param resource recurso alvo da operação (o id do usuário na atualização), que faz parte do
+     *                 escopo da chave; {@code null} quando a operação não tem alvo
+     */
+    public <T> Mono<ResponseEntity<T>> execute(String key, String operation, String resource, Object request,
+                                               Supplier<Mono<ResponseEntity<T>>> action) {
+        if (key == null) {
+            return Mono.defer(action);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return Mono.error(new InvalidRequestException(
+                    "Header " + IDEMPOTENCY_KEY + " deve ter entre 1 e " + MAX_KEY_LENGTH + " caracteres."));
+        }
+        String fingerprint = fingerprint(request);
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .map(Authentication::getName)
+                .defaultIfEmpty("anonymous")
+                .flatMap(principal -> {
+                    String scopedKey = operation + ':' + resource + ':' + principal + ':' + key;
+                    AtomicReference<Execution> self = new AtomicReference<>();
+                    // Executada uma vez, no primeiro subscribe; o resultado em cache continua sendo
+                    // produzido mesmo que o cliente que a iniciou desconecte
+                    Mono<ResponseEntity<T>> shared = Mono.defer(action)
+                            .doOnSuccess(response -> self.get().completed().set(true))
+                            .doOnError(error -> executions.asMap().remove(scopedKey, self.get()))
+                            .cache();
+                    self.set(new Execution(fingerprint, shared, new AtomicBoolean()));
+                    Execution execution = executions.asMap().putIfAbsent(scopedKey, self.get());
+                    if (execution == null) {
+                        count(operation, "new");
+                        return shared;
+                    }
+                    if (!execution.fingerprint().equals(fingerprint)) {
+                        count(operation, "mismatch");
+                        return Mono.error(new IdempotencyKeyReuseException(
+                                "Idempotency-Key já usada com outra requisição."));
+                    }
+                    count(operation, execution.completed().get() ? "replayed" : "joined");
+                    log.debug("Requisição {} com Idempotency-Key repetida, reaproveitando a execução anterior", operation);
+                    @SuppressWarnings("unchecked")
+                    Mono<ResponseEntity<T>> previous = (Mono<ResponseEntity<T>>) execution.result();
+                    return previous.map(IdempotencyStore::replayed);
+                });
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Não foi possível calcular o hash da requisição", e);
+        }
+    }
+
+    private static <T> ResponseEntity<T> replayed(ResponseEntity<T> response) {
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(IDEMPOTENT_REPLAYED, "true")
+                .body(response.getBody());
+    }
+
+    private void count(String operation, String result) {
+        meterRegistry.counter("idempotency.requests", "operation", operation, "result", result).increment();
+    }
+
+    /**
+     * Execução compartilhada entre as requisições com a mesma chave.
+     */
+    private record Execution(String fingerprint, Mono<? extends ResponseEntity<?>> result, AtomicBoolean completed) {
+    }
+}
@@ -0,0 +1,263 @@
+package br.dev.leandro.spring.cloud.user.index;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Índice em memória das projeções de usuário, com a mesma semântica do parâmetro {@code search} de
+ * {@code /admin/realms/{realm}/users}: o termo é separado por espaços e cada parte precisa casar com
+ * o username, o e-mail, o primeiro ou o último nome, sem diferenciar maiúsculas, por prefixo
+ * ({@code maria} ou {@code maria*}), por trecho ({@code *maria*}) ou exatamente ({@code "maria"}).
+ * Os resultados são ordenados por username, como no Keycloak.
+ * <p>
+ * Prefixos e valores exatos são resolvidos por um índice ordenado dos valores dos quatro campos; a
+ * busca por trecho percorre os usuários. As escritas são serializadas e as leituras não bloqueiam:
+ * uma busca concorrente a uma escrita pode ainda não ver a alteração, mas cada usuário devolvido é
+ * conferido contra o termo.
+ */
+public class UserIndex {
+
+    private static final Comparator<Entry> BY_USERNAME = Comparator
+            .comparing((Entry entry) -> entry.user().username(), Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(entry -> entry.user().id());
+    private static final String MAX_ID = String.valueOf(Character.MAX_VALUE);
+
+    private final Map<String, Entry> byId = new ConcurrentHashMap<>();
+    private final NavigableSet<Entry> byUsername = new ConcurrentSkipListSet<>(BY_USERNAME);
+    private final NavigableSet<Term> terms = new ConcurrentSkipListSet<>();
+    private final Object writeLock = new Object();
+
+    public int size() {
+        return byId.size();
+    }
+
+    public UserProjection get(String id) {
+        Entry entry = byId.get(id);
+        return entry == null ? null : entry.user();
+    }
+
+    public Set<String> ids() {
+        return Collections.unmodifiableSet(byId.keySet());
+    }
+
+    /**
+     * Usuários em ordem de username.
+     */
+    public Iterable<UserProjection> users() {
+        return () -> byUsername.stream().map(Entry::user).iterator();
+    }
+
+    public void clear() {
+        synchronized (writeLock) {
+            byId.clear();
+            byUsername.clear();
+            terms.clear();
+        }
+    }
+
+    /**
+     * Inclui ou substitui o usuário; devolve {@code false} se a projeção não mudou.
+     */
+    public boolean upsert(UserProjection user) {
+        synchronized (writeLock) {
+            Entry previous = byId.get(user.id());
+            if (previous != null && previous.user().equals(user)) {
+                return false;
+            }
+            Entry entry = Entry.of(user);
+            if (previous != null) {
+                unlink(previous);
+            }
+            byId.put(user.id(), entry);
+            byUsername.add(entry);
+            for (String key : entry.keys()) {
+                terms.add(new Term(key, user.id()));
+            }
+            return true;
+        }
+    }
+
+    public boolean remove(String id) {
+        synchronized (writeLock) {
+            Entry previous = byId.remove(id);
+            if (previous == null) {
+                return false;
+            }
+            unlink(previous);
+            return true;
+        }
+    }
+
+    private void unlink(Entry entry) {
+        byUsername.remove(entry);
+        for (String key : entry.keys()) {
+            terms.remove(new Term(key, entry.user().id()));
+        }
+    }
+
+    /**
+     * Página {@code [offset, offset + limit)} dos usuários que casam com {@code search}, com o total.
+     */
+    public Page search(String search, int offset, int limit) {
+        List<Token> tokens = Token.parse(search);
+        if (tokens.isEmpty()) {
+            return new Page(page(byUsername, offset, limit), byId.size());
+        }
+
+        int wanted = offset + limit;
+        // Heap com os "wanted" primeiros por username: o maior fica no topo e é trocado
+        PriorityQueue<Entry> top = new PriorityQueue<>(Math.min(wanted, 1024) + 1, BY_USERNAME.reversed());
+        int total = 0;
+        for (Entry entry : candidates(tokens)) {
+            if (!entry.matches(tokens)) {
+                continue;
+            }
+            total++;
+            if (top.size() < wanted) {
+                top.add(entry);
+            } else if (BY_USERNAME.compare(entry, top.peek()) < 0) {
+                top.poll();
+                top.add(entry);
+            }
+        }
+        List<Entry> sorted = new ArrayList<>(top);
+        sorted.sort(BY_USERNAME);
+        return new Page(page(sorted, offset, limit), total);
+    }
+
+    /**
+     * Usuários que podem casar com o termo: os do índice de valores para a parte indexável mais
+     * longa ou, se todas forem por trecho, todos.
+     */
+    private Collection<Entry> candidates(List<Token> tokens) {
+        Token indexed = null;
+        for (Token token : tokens) {
+            if (token.mode() != Mode.INFIX && (indexed == null || token.value().length() > indexed.value().length())) {
+                indexed = token;
+            }
+        }
+        if (indexed == null) {
+            return byId.values();
+        }
+        NavigableSet<Term> range = indexed.mode() == Mode.EXACT
+                ? terms.subSet(new Term(indexed.value(), ""), true, new Term(indexed.value(), MAX_ID), true)
+                : terms.subSet(new Term(indexed.value(), ""), true, new Term(indexed.value() + Character.MAX_VALUE, ""), false);
+        Map<String, Entry> candidates = new HashMap<>();
+        for (Term term : range) {
+            Entry entry = byId.get(term.id());
+            if (entry != null) {
+                candidates.putIfAbsent(term.id(), entry);
+            }
+        }
+        return candidates.values();
+    }
+
+    private static List<UserProjection> page(Iterable<Entry> entries, int offset, int limit) {
+        List<UserProjection> page = new ArrayList<>(Math.min(limit, 1024));
+        int index = 0;
+        for (Entry entry : entries) {
+            if (index++ < offset) {
+                continue;
+            }
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(entry.user());
+        }
+        return page;
+    }
+
+    public record Page(List<UserProjection> users, int total) {
+    }
+
+    /**
+     * Projeção com os valores pesquisáveis (username, e-mail e nomes) já em minúsculas.
+     */
+    private record Entry(UserProjection user, String[] keys) {
+
+        static Entry of(UserProjection user) {
+            List<String> keys = new ArrayList<>(4);
+            for (String value : new String[]{user.username(), user.email(),
+                    UserProjection.lower(user.firstName()), UserProjection.lower(user.lastName())}) {
+                if (value != null && !value.isEmpty() && !keys.contains(value)) {
+                    keys.add(value);
+                }
+            }
+            return new Entry(user, keys.toArray(String[]::new));
+        }
+
+        boolean matches(List<Token> tokens) {
+            for (Token token : tokens) {
+                if (!matches(token)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean matches(Token token) {
+            for (String key : keys) {
+                boolean match = switch (token.mode()) {
+                    case PREFIX -> key.startsWith(token.value());
+                    case INFIX -> key.contains(token.value());
+                    case EXACT -> key.equals(token.value());
+                };
+                if (match) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Entrada do índice de valores: um valor pesquisável e o id do usuário que o tem.
+     */
+    private record Term(String value, String id) implements Comparable<Term> {
+
+        @Override
+        public int compareTo(Term other) {
+            int byValue = value.compareTo(other.value);
+            return byValue != 0 ? byValue : id.compareTo(other.id);
+        }
+    }
+
+    private enum Mode { PREFIX, INFIX, EXACT }
+
+    private record Token(Mode mode, String value) {
+
+        static List<Token> parse(String search) {
+            if (search == null || search.isBlank()) {
+                return List.of();
+            }
+            List<Token> tokens = new ArrayList<>();
+            for (String part : UserProjection.lower(search.trim()).split("\\s+")) {
+                Token token;
+                if (part.length() >= 2 && part.startsWith("\"") && part.endsWith("\"")) {
+                    token = new Token(Mode.EXACT, part.substring(1, part.length() - 1));
+                } else if (part.startsWith("*")) {
+                    token = new Token(Mode.INFIX, strip(part));
+                } else {
+                    token = new Token(Mode.PREFIX, strip(part));
+                }
+                if (!token.value().isEmpty()) {
+                    tokens.add(token);
+                }
+            }
+            return tokens;
+        }
+
+        private static String strip(String part) {
+            int start = 0;
+            int end = part.length();
+            while (start < end && part.charAt(start) == '*') {
+                start++;
+            }
+            while (end > start && part.charAt(end - 1) == '*') {
+                end--;
+            }
+            return part.substring(start, end);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package br.dev.leandro.spring.cloud.user.index;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+@Setter
+@Getter
+@Component
+@ConfigurationProperties(prefix = "app.user-index")
+public class UserIndexProperties {
+
+    /**
+     * Mantém o índice local de usuários e responde a listagem a partir dele.
+     */
+    private boolean enabled;
+    /**
+     * Intervalo da ressincronização completa com o Keycloak, que corrige alterações feitas fora
+     * do serviço (console do Keycloak, outras réplicas sem o bus). A API de administração não filtra
+     * usuários por data de alteração, então cada ressincronização lê todo o realm; o intervalo
+     * padrão é longo para que réplicas com realms grandes não pressionem o Keycloak.
+     */
+    private Duration resyncInterval = Duration.ofHours(6);
+    /**
+     * Sem uma sincronização bem-sucedida nesse período a listagem volta a consultar o Keycloak.
+     * Deve passar de {@code resyncInterval}; o padrão tolera uma ressincronização com falha.
+     */
+    private Duration maxStaleness = Duration.ofHours(13);
+    /**
+     * Usuários por página na leitura do Keycloak durante a sincronização.
+     */
+    private int pageSize = 500;
+    /**
+     * Roles de realm mantidas na projeção de cada usuário.
+     */
+    private List<String> roles = List.of("ADMIN", "ORGANIZADOR", "PARTICIPANTE");
+    private Snapshot snapshot = new Snapshot();
+
+    @Setter
+    @Getter
+    public static class Snapshot {
+        /**
+         * Diretório do snapshot e do log de alterações; deve ficar em um volume persistente.
+         * Vazio desabilita a persistência e a partida volta a depender da sincronização completa.
+         */
+        private String directory;
+        /**
+         * Alterações no log que disparam a gravação de um novo snapshot.
+         */
+        private int compactAfter = 100_000;
+    }
+}
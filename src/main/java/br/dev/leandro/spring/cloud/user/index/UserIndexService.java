@@ -0,0 +1,402 @@
+package br.dev.leandro.spring.cloud.user.index;
+
+import br.dev.leandro.spring.cloud.user.exception.ResourceNotFoundException;
+import br.dev.leandro.spring.cloud.user.keycloak.KeycloakCall;
+import br.dev.leandro.spring.cloud.user.keycloak.KeycloakRole;
+import br.dev.leandro.spring.cloud.user.keycloak.KeycloakUris;
+import br.dev.leandro.spring.cloud.user.keycloak.KeycloakUser;
+import br.dev.leandro.spring.cloud.user.resilience.KeycloakOperation;
+import br.dev.leandro.spring.cloud.user.utils.WebClientUtils;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+
+/**
+ * Mantém o {@link UserIndex} atualizado: uma sincronização completa na partida, as alterações feitas
+ * pelo próprio serviço relidas do Keycloak a cada invalidação do usuário (e recebidas prontas das
+ * outras réplicas, via bus, sem nova leitura) e
+ * uma ressincronização periódica, que também remove os usuários excluídos fora do serviço (depois
+ * de confirmar a exclusão no Keycloak).
+ * <p>
+ * Um usuário alterado localmente depois do início de uma sincronização não é sobrescrito nem
+ * removido por ela, já que a página lida do Keycloak pode ser anterior à alteração.
+ * <p>
+ * Com {@code app.user-index.snapshot.directory} configurado, o índice é carregado do disco pelo
+ * {@link UserIndexStore} antes da primeira sincronização, que então só aplica as diferenças, e cada
+ * alteração do índice é registrada no log.
+ */
+@Slf4j
+@Component
+public class UserIndexService {
+
+    private static final int PAGES_IN_FLIGHT = 2;
+    private static final int CONFIRMATIONS_IN_FLIGHT = 4;
+
+    private final UserIndexProperties properties;
+    private final WebClientUtils webClientUtils;
+    private final KeycloakUris keycloakUris;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock = Clock.systemUTC();
+
+    private final UserIndex index = new UserIndex();
+    private final UserIndexStore store;
+    private final AtomicLong sequence = new AtomicLong();
+    /**
+     * Sequência da última alteração local de cada usuário, até a sincronização seguinte terminar.
+     */
+    private final Map<String, Long> localWrites = new ConcurrentHashMap<>();
+    private final AtomicReference<Mono<Void>> inFlight = new AtomicReference<>();
+    private final AtomicReference<Disposable> scheduled = new AtomicReference<>();
+    private volatile Instant lastSync;
+
+    public UserIndexService(UserIndexProperties properties,
+                            WebClientUtils webClientUtils,
+                            KeycloakUris keycloakUris,
+                            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.webClientUtils = webClientUtils;
+        this.keycloakUris = keycloakUris;
+        this.meterRegistry = meterRegistry;
+        String directory = properties.getSnapshot().getDirectory();
+        this.store = properties.isEnabled() && directory != null && !directory.isBlank()
+                ? new UserIndexStore(index, Paths.get(directory), properties.getSnapshot().getCompactAfter(), meterRegistry)
+                : null;
+        Gauge.builder("user.index.users", index, UserIndex::size)
+                .description("Usuários no índice local")
+                .register(meterRegistry);
+        Gauge.builder("user.index.age", this, service -> service.lastSync == null
+                        ? Double.NaN : Duration.between(service.lastSync, service.clock.instant()).toSeconds())
+                .description("Segundos desde a última sincronização completa do índice local")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        load().then(synchronize(Trigger.STARTUP)).subscribe(v -> { }, error -> { });
+        Duration interval = properties.getResyncInterval();
+        Disposable previous = scheduled.getAndSet(Flux.interval(interval, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> synchronize(Trigger.SCHEDULED).onErrorResume(error -> Mono.empty()), 0)
+                .subscribe());
+        if (previous != null) {
+            previous.dispose();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        Disposable next = scheduled.getAndSet(null);
+        if (next != null) {
+            next.dispose();
+        }
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    /**
+     * Carrega o snapshot e o log do disco, se a persistência estiver configurada. Com uma
+     * sincronização recente registrada, o índice já responde consultas a partir daqui.
+     */
+    private Mono<Void> load() {
+        if (store == null) {
+            return Mono.empty();
+        }
+        return Mono.fromCallable(store::load)
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(synced -> synced.ifPresent(at -> lastSync = at))
+                .then();
+    }
+
+    /**
+     * O índice pode responder consultas: está habilitado e teve uma sincronização completa
+     * recente o bastante.
+     */
+    public boolean isReady() {
+        Instant synced = lastSync;
+        return properties.isEnabled() && synced != null
+                && Duration.between(synced, clock.instant()).compareTo(properties.getMaxStaleness()) <= 0;
+    }
+
+    public UserIndex.Page search(String search, int offset, int limit) {
+        return index.search(search, offset, limit);
+    }
+
+    public UserProjection get(String id) {
+        return index.get(id);
+    }
+
+    /**
+     * Relê o usuário do Keycloak e atualiza a projeção, ou a remove ({@link Optional#empty()}) se o
+     * usuário não existe mais. Chamado a cada invalidação feita por esta réplica; a alteração emitida é
+     * repassada às outras réplicas pelo bus. Nada é emitido com o índice desabilitado, com falha na
+     * leitura ou quando uma alteração mais recente do usuário já começou.
+     */
+    public Mono<Optional<UserProjection>> refresh(String userId) {
+        if (!properties.isEnabled()) {
+            return Mono.empty();
+        }
+        long write = sequence.incrementAndGet();
+        localWrites.put(userId, write);
+        return fetchUser(userId)
+                .map(Optional::of)
+                .onErrorResume(this::isNotFound, error -> Mono.just(Optional.empty()))
+                .filter(user -> isLatestWrite(userId, write))
+                .doOnNext(user -> user.ifPresentOrElse(this::upsert, () -> remove(userId)))
+                .onErrorResume(error -> {
+                    log.warn("Não foi possível atualizar o usuário {} no índice local: {}", userId, error.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Aplica a alteração que outra réplica leu do Keycloak em {@link #refresh(String)}, recebida pelo bus.
+     */
+    public void apply(String userId, Optional<UserProjection> user) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        localWrites.put(userId, sequence.incrementAndGet());
+        user.ifPresentOrElse(this::upsert, () -> remove(userId));
+    }
+
+    /**
+     * Sincronização completa com o Keycloak; chamadas concorrentes compartilham a mesma execução.
+     */
+    public Mono<Void> synchronize(Trigger trigger) {
+        return Mono.defer(() -> {
+            Mono<Void> existing = inFlight.get();
+            if (existing != null) {
+                return existing;
+            }
+            // Liberada antes de o término chegar aos assinantes, para que uma nova chamada logo
+            // depois não receba a execução já concluída
+            Mono<Void> run = doSynchronize(trigger)
+                    .doOnTerminate(() -> inFlight.set(null))
+                    .cache();
+            if (inFlight.compareAndSet(null, run)) {
+                return run;
+            }
+            return synchronize(trigger);
+        });
+    }
+
+    private Mono<Void> doSynchronize(Trigger trigger) {
+        long startedAt = System.nanoTime();
+        long start = sequence.incrementAndGet();
+        Set<String> seen = new HashSet<>();
+        return fetchRoleMembers()
+                .flatMap(rolesById -> pages(first -> fetchUsersPage(first))
+                        .doOnNext(user -> {
+                            seen.add(user.id());
+                            if (!writtenSince(user.id(), start)) {
+                                upsert(UserProjection.of(user, rolesById.getOrDefault(user.id(), List.of())));
+                            }
+                        })
+                        .then())
+                .then(Mono.defer(() -> sweep(seen, start)))
+                .doOnNext(removed -> {
+                    localWrites.values().removeIf(write -> write <= start);
+                    lastSync = clock.instant();
+                    if (store != null) {
+                        store.synced(lastSync);
+                    }
+                    count(trigger, "success");
+                    log.info("Índice local de usuários sincronizado ({}) com {} usuários, {} removidos, em {} ms",
+                            trigger.tag, index.size(), removed, Duration.ofNanos(System.nanoTime() - startedAt).toMillis());
+                })
+                .doOnError(error -> {
+                    count(trigger, "failure");
+                    log.warn("Erro ao sincronizar o índice local de usuários ({}): {}", trigger.tag, error.getMessage());
+                })
+                .then();
+    }
+
+    /**
+     * Confere no Keycloak os usuários do índice que não apareceram na listagem e remove apenas os que
+     * respondem 404. Com usuários criados ou excluídos durante a varredura as páginas por offset se
+     * deslocam, e um usuário existente pode ficar de fora da listagem.
+     */
+    private Mono<Integer> sweep(Set<String> seen, long start) {
+        List<String> missing = index.ids().stream()
+                .filter(id -> !seen.contains(id) && !writtenSince(id, start))
+                .toList();
+        return Flux.fromIterable(missing)
+                .flatMap(id -> fetchUser(id)
+                        .map(user -> {
+                            if (!writtenSince(id, start)) {
+                                upsert(user);
+                            }
+                            return 0;
+                        })
+                        .onErrorResume(error -> {
+                            if (isNotFound(error)) {
+                                return Mono.just(!writtenSince(id, start) && remove(id) ? 1 : 0);
+                            }
+                            log.warn("Usuário {} ausente da listagem mantido no índice local: {}", id, error.getMessage());
+                            return Mono.just(0);
+                        }), CONFIRMATIONS_IN_FLIGHT)
+                .reduce(0, Integer::sum);
+    }
+
+    /**
+     * Roles configuradas de cada usuário que tem alguma delas. As listas são compartilhadas entre os
+     * usuários com as mesmas roles.
+     */
+    private Mono<Map<String, List<String>>> fetchRoleMembers() {
+        Map<String, List<String>> rolesById = new HashMap<>();
+        Map<List<String>, List<String>> interned = new HashMap<>();
+        return Flux.fromIterable(properties.getRoles())
+                .concatMap(role -> pages(first -> fetchRoleMembersPage(role, first))
+                        .doOnNext(user -> rolesById.merge(user.id(), List.of(role), (current, added) -> {
+                            List<String> roles = new ArrayList<>(current);
+                            roles.addAll(added);
+                            return interned.computeIfAbsent(List.copyOf(roles), key -> key);
+                        }))
+                        .onErrorResume(this::isNotFound, error -> {
+                            log.warn("Role {} não encontrada no Keycloak, ignorada no índice local", role);
+                            return Mono.empty();
+                        }))
+                .then(Mono.fromSupplier(() -> rolesById));
+    }
+
+    private Mono<List<KeycloakUser>> fetchUsersPage(int first) {
+        Map<String, Object> queryParams = new LinkedHashMap<>();
+        queryParams.put("briefRepresentation", true);
+        queryParams.put("first", first);
+        queryParams.put("max", properties.getPageSize());
+        return fetchPage(KeycloakCall.LIST_USERS, keycloakUris.users(queryParams));
+    }
+
+    private Mono<List<KeycloakUser>> fetchRoleMembersPage(String role, int first) {
+        Map<String, Object> queryParams = new LinkedHashMap<>();
+        queryParams.put("briefRepresentation", true);
+        queryParams.put("first", first);
+        queryParams.put("max", properties.getPageSize());
+        return fetchPage(KeycloakCall.LIST_ROLE_USERS, keycloakUris.roleUsers(role, queryParams));
+    }
+
+    private Mono<List<KeycloakUser>> fetchPage(KeycloakCall call, URI uri) {
+        return webClientUtils.withAdminToken(KeycloakOperation.LIST_USERS, token -> webClientUtils.createGetRequest(token, call, uri)
+                .retrieve()
+                .bodyToFlux(KeycloakUser.class)
+                .collectList());
+    }
+
+    /**
+     * Percorre a listagem página a página, com até {@code PAGES_IN_FLIGHT} páginas buscadas ao mesmo
+     * tempo. Depois da última página (a incompleta) nenhuma outra é pedida, mas as que já estavam em
+     * andamento terminam antes da conclusão, para não deixar requisições pendentes no Keycloak.
+     */
+    private Flux<KeycloakUser> pages(IntFunction<Mono<List<KeycloakUser>>> fetch) {
+        int pageSize = properties.getPageSize();
+        AtomicBoolean lastPageSeen = new AtomicBoolean();
+        return Flux.<Integer, Integer>generate(() -> 0, (first, sink) -> {
+                    if (lastPageSeen.get()) {
+                        sink.complete();
+                    } else {
+                        sink.next(first);
+                    }
+                    return first + pageSize;
+                })
+                .flatMapSequential(fetch::apply, PAGES_IN_FLIGHT, 1)
+                .doOnNext(page -> {
+                    if (page.size() < pageSize) {
+                        lastPageSeen.set(true);
+                    }
+                })
+                .concatMapIterable(page -> page);
+    }
+
+    private Mono<UserProjection> fetchUser(String userId) {
+        return webClientUtils.withAdminToken(KeycloakOperation.GET_USER, token -> Mono.zip(
+                webClientUtils.createGetRequest(token, KeycloakCall.GET_USER, keycloakUris.user(userId))
+                        .retrieve()
+                        .bodyToMono(KeycloakUser.class),
+                webClientUtils.createGetRequest(token, KeycloakCall.GET_USER_ROLES, keycloakUris.userRoleMappings(userId))
+                        .retrieve()
+                        .bodyToFlux(KeycloakRole.class)
+                        .map(KeycloakRole::name)
+                        .filter(properties.getRoles()::contains)
+                        .collectList()
+        )).map(tuple -> UserProjection.of(tuple.getT1(), tuple.getT2()));
+    }
+
+    /**
+     * Alterações do índice e o registro delas no log na mesma ordem, mesmo com escritas
+     * concorrentes do mesmo usuário.
+     */
+    private boolean upsert(UserProjection user) {
+        synchronized (index) {
+            boolean changed = index.upsert(user);
+            if (changed && store != null) {
+                store.upserted(user);
+            }
+            return changed;
+        }
+    }
+
+    private boolean remove(String id) {
+        synchronized (index) {
+            boolean removed = index.remove(id);
+            if (removed && store != null) {
+                store.removed(id);
+            }
+            return removed;
+        }
+    }
+
+    private boolean writtenSince(String userId, long start) {
+        Long write = localWrites.get(userId);
+        return write != null && write > start;
+    }
+
+    private boolean isLatestWrite(String userId, long write) {
+        Long latest = localWrites.get(userId);
+        return latest == null || latest == write;
+    }
+
+    private boolean isNotFound(Throwable error) {
+        return error instanceof WebClientResponseException.NotFound || error instanceof ResourceNotFoundException;
+    }
+
+    private void count(Trigger trigger, String outcome) {
+        meterRegistry.counter("user.index.syncs", "trigger", trigger.tag, "outcome", outcome).increment();
+    }
+
+    public enum Trigger {
+        STARTUP("startup"),
+        SCHEDULED("scheduled");
+
+        private final String tag;
+
+        Trigger(String tag) {
+            this.tag = tag;
+        }
+    }
+}
@@ -0,0 +1,477 @@
+package br.dev.leandro.spring.cloud.user.index;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Persistência do {@link UserIndex} em disco, para que a partida não dependa de uma sincronização
+ * completa com o Keycloak: um snapshot binário versionado ({@code users.snapshot}) mais um log
+ * append-only das alterações feitas depois dele ({@code changes-<geração>.log}). Na partida os dois
+ * são lidos por mapeamento em memória; registros corrompidos no fim do log (queda durante a
+ * gravação) são descartados.
+ * <p>
+ * Toda gravação é feita por uma única thread própria, fora do caminho das requisições: as
+ * alterações são enfileiradas e gravadas em lote, e quando o log passa de {@code compact-after}
+ * registros um novo snapshot é gravado (arquivo temporário, fsync e move atômico) e o log
+ * recomeça numa nova geração. O log não tem fsync por registro: uma alteração perdida numa queda é
+ * corrigida pela sincronização seguinte com o Keycloak.
+ */
+@Slf4j
+public class UserIndexStore {
+
+    static final String SNAPSHOT_FILE = "users.snapshot";
+    private static final int SNAPSHOT_MAGIC = 0x55534E50; // "USNP"
+    private static final int LOG_MAGIC = 0x554C4F47; // "ULOG"
+    private static final int VERSION = 1;
+    private static final int SNAPSHOT_HEADER = 4 + 4 + 8 + 8 + 4;
+    private static final int LOG_HEADER = 4 + 4 + 8;
+    private static final byte UPSERT = 1;
+    private static final byte REMOVE = 2;
+    private static final byte SYNCED = 3;
+
+    private final UserIndex index;
+    private final Path directory;
+    private final int compactAfter;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService writer;
+
+    private final ConcurrentLinkedQueue<Change> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicLong logEntries = new AtomicLong();
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+    private final DataOutputStream recordOut = new DataOutputStream(record);
+    private final CRC32 crc = new CRC32();
+
+    // Acessados apenas pela thread de gravação depois do load
+    private long generation;
+    private Instant lastSync;
+    private DataOutputStream changeLog;
+    private volatile boolean loaded;
+
+    public UserIndexStore(UserIndex index, Path directory, int compactAfter, MeterRegistry meterRegistry) {
+        this.index = index;
+        this.directory = directory;
+        this.compactAfter = compactAfter;
+        this.meterRegistry = meterRegistry;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-index-store");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("user.index.log.entries", logEntries, AtomicLong::get)
+                .description("Alterações no log do índice local desde o último snapshot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Carrega o snapshot e o log no índice e passa a aceitar gravações. Bloqueante; devolve o
+     * instante da última sincronização completa registrada, se houver.
+     */
+    public Optional<Instant> load() {
+        long startedAt = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+            Path snapshot = directory.resolve(SNAPSHOT_FILE);
+            int users = 0;
+            if (Files.exists(snapshot)) {
+                users = readSnapshot(snapshot);
+            }
+            Path logFile = logPath(generation);
+            int replayed = Files.exists(logFile) ? replayLog(logFile) : 0;
+            deleteOtherLogs();
+            changeLog = openLog(logFile);
+            log.info("Índice local carregado de {}: {} usuários do snapshot (geração {}), {} alterações do log, em {} ms",
+                    directory.toAbsolutePath(), users, generation, replayed,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Não foi possível carregar o índice local de {}, será reconstruído pelo Keycloak: {}",
+                    directory.toAbsolutePath(), e.getMessage());
+            reset();
+        }
+        loaded = true;
+        drain();
+        return Optional.ofNullable(lastSync);
+    }
+
+    /**
+     * Descarta o snapshot, o log e o que já tinha sido carregado, recomeçando da geração zero. Apenas
+     * os arquivos do índice são apagados; o diretório pode ter outros.
+     */
+    private void reset() {
+        index.clear();
+        generation = 0;
+        lastSync = null;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (name.equals(SNAPSHOT_FILE) || name.equals(SNAPSHOT_FILE + ".tmp") || isLog(name)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            changeLog = openLog(logPath(generation));
+        } catch (IOException e) {
+            log.error("Índice local sem persistência, não foi possível recriar os arquivos em {}: {}", directory, e.getMessage());
+        }
+    }
+
+    public void upserted(UserProjection user) {
+        enqueue(new Change(UPSERT, user, user.id(), null));
+    }
+
+    public void removed(String id) {
+        enqueue(new Change(REMOVE, null, id, null));
+    }
+
+    public void synced(Instant at) {
+        enqueue(new Change(SYNCED, null, null, at));
+    }
+
+    /**
+     * Grava o que estiver pendente e encerra a thread de gravação.
+     */
+    public void close() {
+        writer.execute(() -> {
+            writePending();
+            closeLog();
+        });
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Gravação do índice local não terminou no prazo");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void enqueue(Change change) {
+        pending.add(change);
+        drain();
+    }
+
+    private void drain() {
+        if (loaded && !writer.isShutdown() && draining.compareAndSet(false, true)) {
+            try {
+                writer.execute(this::drainLoop);
+            } catch (RuntimeException e) {
+                draining.set(false);
+            }
+        }
+    }
+
+    private void drainLoop() {
+        do {
+            writePending();
+            draining.set(false);
+        } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+        if (logEntries.get() >= compactAfter) {
+            compact();
+        }
+    }
+
+    private void writePending() {
+        if (changeLog == null) {
+            pending.clear();
+            return;
+        }
+        try {
+            Change change;
+            while ((change = pending.poll()) != null) {
+                writeChange(change);
+                logEntries.incrementAndGet();
+                if (change.type() == SYNCED) {
+                    lastSync = change.syncedAt();
+                }
+            }
+            changeLog.flush();
+        } catch (IOException e) {
+            log.error("Falha ao gravar o log do índice local, persistência interrompida: {}", e.getMessage());
+            closeLog();
+            changeLog = null;
+        }
+    }
+
+    /**
+     * Grava um novo snapshot com o conteúdo atual do índice e inicia o log da geração seguinte.
+     * Alterações concorrentes que já estejam no snapshot também vão para o novo log, o que é
+     * inofensivo: reaplicá-las leva ao mesmo estado.
+     */
+    void compact() {
+        long startedAt = System.nanoTime();
+        long next = generation + 1;
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try {
+            int users = writeSnapshot(temp, next);
+            Files.move(temp, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            closeLog();
+            Path previousLog = logPath(generation);
+            generation = next;
+            changeLog = openLog(logPath(generation));
+            logEntries.set(0);
+            Files.deleteIfExists(previousLog);
+            meterRegistry.counter("user.index.snapshots", "outcome", "success").increment();
+            log.info("Snapshot do índice local gravado com {} usuários (geração {}) em {} ms", users, generation,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        } catch (IOException e) {
+            meterRegistry.counter("user.index.snapshots", "outcome", "failure").increment();
+            log.error("Falha ao gravar o snapshot do índice local: {}", e.getMessage());
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Sobrescrito no próximo snapshot
+            }
+        }
+    }
+
+    private int writeSnapshot(Path temp, long snapshotGeneration) throws IOException {
+        int users = 0;
+        CRC32 checksum = new CRC32();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            channel.position(SNAPSHOT_HEADER);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutputStream(Channels.newOutputStream(channel), checksum), 1 << 16));
+            for (UserProjection user : index.users()) {
+                writeUser(out, user);
+                users++;
+            }
+            out.flush();
+            channel.write(ByteBuffer.allocate(8).putLong(0, checksum.getValue()), channel.position());
+            ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER)
+                    .putInt(SNAPSHOT_MAGIC)
+                    .putInt(VERSION)
+                    .putLong(snapshotGeneration)
+                    .putLong(lastSync == null ? -1 : lastSync.toEpochMilli())
+                    .putInt(users)
+                    .flip();
+            channel.write(header, 0);
+            channel.force(true);
+        }
+        return users;
+    }
+
+    private int readSnapshot(Path snapshot) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = map(channel);
+            if (buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("snapshot com formato ou versão desconhecidos");
+            }
+            long snapshotGeneration = buffer.getLong();
+            long syncedAt = buffer.getLong();
+            int count = buffer.getInt();
+
+            CRC32 checksum = new CRC32();
+            ByteBuffer body = buffer.slice(SNAPSHOT_HEADER, buffer.limit() - SNAPSHOT_HEADER - 8);
+            checksum.update(body);
+            if (checksum.getValue() != buffer.getLong(buffer.limit() - 8)) {
+                throw new IOException("checksum do snapshot não confere");
+            }
+
+            Map<List<String>, List<String>> roles = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                index.upsert(readUser(buffer, roles));
+            }
+            generation = snapshotGeneration;
+            lastSync = syncedAt < 0 ? null : Instant.ofEpochMilli(syncedAt);
+            return count;
+        }
+    }
+
+    /**
+     * Reaplica o log até o último registro íntegro e trunca o que vier depois dele.
+     */
+    private int replayLog(Path logFile) throws IOException {
+        int replayed = 0;
+        long validEnd;
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = map(channel);
+            if (buffer.limit() < LOG_HEADER || buffer.getInt() != LOG_MAGIC || buffer.getInt() != VERSION
+                    || buffer.getLong() != generation) {
+                log.warn("Log do índice local {} inválido, ignorado", logFile);
+                return 0;
+            }
+            Map<List<String>, List<String>> roles = new HashMap<>();
+            validEnd = buffer.position();
+            while (buffer.remaining() >= 4) {
+                try {
+                    int length = buffer.getInt();
+                    if (length <= 0 || length + 4 > buffer.remaining()) {
+                        break;
+                    }
+                    ByteBuffer payload = buffer.slice(buffer.position(), length);
+                    CRC32 checksum = new CRC32();
+                    checksum.update(payload.duplicate());
+                    buffer.position(buffer.position() + length);
+                    if ((int) checksum.getValue() != buffer.getInt()) {
+                        break;
+                    }
+                    apply(payload, roles);
+                    replayed++;
+                    validEnd = buffer.position();
+                } catch (BufferUnderflowException | IllegalArgumentException e) {
+                    break;
+                }
+            }
+            if (validEnd < channel.size()) {
+                log.warn("Descartando {} bytes corrompidos no fim do log do índice local", channel.size() - validEnd);
+                channel.truncate(validEnd);
+            }
+        }
+        logEntries.set(replayed);
+        return replayed;
+    }
+
+    private void apply(ByteBuffer payload, Map<List<String>, List<String>> roles) {
+        byte type = payload.get();
+        switch (type) {
+            case UPSERT -> index.upsert(readUser(payload, roles));
+            case REMOVE -> index.remove(readString(payload));
+            case SYNCED -> lastSync = Instant.ofEpochMilli(payload.getLong());
+            default -> throw new IllegalArgumentException("tipo de registro desconhecido: " + type);
+        }
+    }
+
+    private void writeChange(Change change) throws IOException {
+        record.reset();
+        recordOut.writeByte(change.type());
+        switch (change.type()) {
+            case UPSERT -> writeUser(recordOut, change.user());
+            case REMOVE -> writeString(recordOut, change.id());
+            default -> recordOut.writeLong(change.syncedAt().toEpochMilli());
+        }
+        crc.reset();
+        crc.update(record.toByteArray(), 0, record.size());
+        changeLog.writeInt(record.size());
+        record.writeTo(changeLog);
+        changeLog.writeInt((int) crc.getValue());
+    }
+
+    private DataOutputStream openLog(Path logFile) throws IOException {
+        boolean created = !Files.exists(logFile) || Files.size(logFile) == 0;
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(logFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND), 1 << 16));
+        if (created) {
+            out.writeInt(LOG_MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(generation);
+            out.flush();
+            logEntries.set(0);
+        }
+        return out;
+    }
+
+    private void closeLog() {
+        if (changeLog == null) {
+            return;
+        }
+        try {
+            changeLog.close();
+        } catch (IOException e) {
+            log.warn("Falha ao fechar o log do índice local: {}", e.getMessage());
+        }
+    }
+
+    private void deleteOtherLogs() throws IOException {
+        String current = logPath(generation).getFileName().toString();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (isLog(name) && !name.equals(current)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private static boolean isLog(String name) {
+        return name.startsWith("changes-") && name.endsWith(".log");
+    }
+
+    private Path logPath(long logGeneration) {
+        return directory.resolve("changes-" + logGeneration + ".log");
+    }
+
+    private static MappedByteBuffer map(FileChannel channel) throws IOException {
+        if (channel.size() > Integer.MAX_VALUE) {
+            throw new IOException("arquivo maior que 2 GB: " + channel.size() + " bytes");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    private static void writeUser(DataOutputStream out, UserProjection user) throws IOException {
+        writeString(out, user.id());
+        writeString(out, user.username());
+        writeString(out, user.email());
+        writeString(out, user.firstName());
+        writeString(out, user.lastName());
+        out.writeBoolean(user.enabled());
+        out.writeByte(user.roles().size());
+        for (String role : user.roles()) {
+            writeString(out, role);
+        }
+    }
+
+    private static UserProjection readUser(ByteBuffer buffer, Map<List<String>, List<String>> interned) {
+        String id = readString(buffer);
+        String username = readString(buffer);
+        String email = readString(buffer);
+        String firstName = readString(buffer);
+        String lastName = readString(buffer);
+        boolean enabled = buffer.get() != 0;
+        int roleCount = buffer.get();
+        List<String> roles = List.of();
+        if (roleCount > 0) {
+            String[] names = new String[roleCount];
+            for (int i = 0; i < roleCount; i++) {
+                names[i] = readString(buffer);
+            }
+            roles = interned.computeIfAbsent(List.of(names), key -> key);
+        }
+        return new UserProjection(id, username, email, firstName, lastName, enabled, roles);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private record Change(byte type, UserProjection user, String id, Instant syncedAt) {
+    }
+}
@@ -0,0 +1,29 @@
+package br.dev.leandro.spring.cloud.user.index;
+
+import br.dev.leandro.spring.cloud.user.dto.UserDto;
+import br.dev.leandro.spring.cloud.user.keycloak.KeycloakUser;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Projeção de leitura de um usuário do Keycloak mantida no {@link UserIndex}. Username e e-mail são
+ * guardados em minúsculas, como o Keycloak os armazena.
+ */
+public record UserProjection(String id, String username, String email, String firstName, String lastName,
+                             boolean enabled, List<String> roles) {
+
+    public static UserProjection of(KeycloakUser user, List<String> roles) {
+        return new UserProjection(user.id(), lower(user.username()), lower(user.email()), user.firstName(),
+                user.lastName(), !Boolean.FALSE.equals(user.enabled()), roles);
+    }
+
+    public UserDto toUserDto() {
+        return new UserDto(username, email, firstName, lastName, null,
+                roles.isEmpty() ? null : roles.get(0), null, null, null);
+    }
+
+    static String lower(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,152 @@
+package br.dev.leandro.spring.cloud.user.keycloak;
+
+import br.dev.leandro.spring.cloud.user.exception.AdminCredentialsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static br.dev.leandro.spring.cloud.user.config.OperationClientRequestObservationConvention.OPERATION_ATTRIBUTE;
+
+/**
+ * Mantém o token administrativo (client_credentials) do Keycloak em memória.
+ * O token é renovado antes de expirar e chamadas concorrentes compartilham a mesma renovação.
+ */
+@Slf4j
+@Component
+public class AdminTokenProvider {
+
+    private final WebClient webClient;
+    private final KeycloakProperties keycloakProperties;
+    private final KeycloakUris keycloakUris;
+    private final Clock clock = Clock.systemUTC();
+
+    private final AtomicReference<CachedToken> current = new AtomicReference<>();
+    private final AtomicReference<Mono<CachedToken>> inFlight = new AtomicReference<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter refreshSuccess;
+    private final Counter refreshFailure;
+
+    public AdminTokenProvider(@Qualifier("keycloakWebClient") WebClient webClient,
+                              KeycloakProperties keycloakProperties,
+                              KeycloakUris keycloakUris,
+                              MeterRegistry meterRegistry) {
+        this.webClient = webClient;
+        this.keycloakProperties = keycloakProperties;
+        this.keycloakUris = keycloakUris;
+        this.hits = meterRegistry.counter("keycloak.admin.token.requests", "result", "hit");
+        this.misses = meterRegistry.counter("keycloak.admin.token.requests", "result", "miss");
+        this.refreshSuccess = meterRegistry.counter("keycloak.admin.token.refreshes", "outcome", "success");
+        this.refreshFailure = meterRegistry.counter("keycloak.admin.token.refreshes", "outcome", "failure");
+    }
+
+    /**
+     * Retorna o token em cache ou, se estiver perto de expirar, aguarda a renovação em andamento.
+     */
+    public Mono<String> getToken() {
+        return Mono.defer(() -> {
+            CachedToken token = current.get();
+            if (token != null && clock.instant().isBefore(token.refreshAt())) {
+                hits.increment();
+                return Mono.just(token.value());
+            }
+            misses.increment();
+            return refresh().map(CachedToken::value);
+        });
+    }
+
+    /**
+     * Descarta o token informado para que a próxima chamada busque um novo.
+     * Não faz nada se o cache já tiver sido renovado por outra requisição.
+     */
+    public void invalidate(String token) {
+        CachedToken cached = current.get();
+        if (cached != null && cached.value().equals(token)) {
+            current.compareAndSet(cached, null);
+        }
+    }
+
+    /**
+     * Descarta qualquer token em cache.
+     */
+    public void invalidate() {
+        current.set(null);
+    }
+
+    private Mono<CachedToken> refresh() {
+        return Mono.defer(() -> {
+            Mono<CachedToken> existing = inFlight.get();
+            if (existing != null) {
+                return existing;
+            }
+            Mono<CachedToken> request = requestToken()
+                    .doOnNext(token -> {
+                        current.set(token);
+                        refreshSuccess.increment();
+                    })
+                    .doOnError(error -> refreshFailure.increment())
+                    .doFinally(signal -> inFlight.set(null))
+                    .cache();
+            if (inFlight.compareAndSet(null, request)) {
+                return request;
+            }
+            return refresh();
+        });
+    }
+
+    private Mono<CachedToken> requestToken() {
+        return webClient.post()
+                .uri(keycloakUris.token())
+                .attribute(OPERATION_ATTRIBUTE, KeycloakCall.TOKEN.getTag())
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .body(BodyInserters.fromFormData("grant_type", "client_credentials")
+                        .with("client_id", keycloakProperties.getClientId())
+                        .with("client_secret", keycloakProperties.getClientSecret()))
+                .retrieve()
+                .onStatus(HttpStatusCode::is4xxClientError, response -> {
+                    if (response.statusCode() == HttpStatus.UNAUTHORIZED) {
+                        // O client_secret do próprio serviço foi rejeitado, não o token de quem chamou a API
+                        return Mono.error(new AdminCredentialsException("Credenciais do serviço rejeitadas pelo Keycloak."));
+                    }
+                    return response.createException().flatMap(Mono::error);
+                })
+                .onStatus(HttpStatusCode::is5xxServerError, response ->
+                        Mono.error(new RuntimeException("Erro interno ao obter o token.")))
+                .bodyToMono(KeycloakTokenResponse.class)
+                .flatMap(this::toCachedToken)
+                .doOnNext(token -> log.debug("Token administrativo renovado, nova renovação em {}", token.refreshAt()))
+                .doOnError(error -> log.error("Erro ao obter token: {}", error.getMessage()));
+    }
+
+    private Mono<CachedToken> toCachedToken(KeycloakTokenResponse response) {
+        if (response.accessToken() == null) {
+            return Mono.error(new IllegalStateException("Resposta do Keycloak sem access_token."));
+        }
+        Duration lifetime = response.expiresIn() != null
+                ? Duration.ofSeconds(response.expiresIn())
+                : keycloakProperties.getToken().getDefaultLifetime();
+        // Tokens de vida curta nunca são renovados antes da metade da validade
+        Duration refreshAfter = lifetime.minus(keycloakProperties.getToken().getRefreshSkew());
+        if (refreshAfter.compareTo(lifetime.dividedBy(2)) < 0) {
+            refreshAfter = lifetime.dividedBy(2);
+        }
+        return Mono.just(new CachedToken(response.accessToken(), clock.instant().plus(refreshAfter)));
+    }
+
+    record CachedToken(String value, Instant refreshAt) {
+    }
+}
@@ -0,0 +1,225 @@
+package br.dev.leandro.spring.cloud.user.keycloak;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.File;
+import java.net.URI;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static br.dev.leandro.spring.cloud.user.config.OperationClientRequestObservationConvention.OPERATION_ATTRIBUTE;
+
+/**
+ * Chaves públicas do realm usadas para validar os JWTs recebidos. A validação consulta apenas o
+ * snapshot em memória; o Keycloak só é chamado pela renovação em background (antes do ttl), por um
+ * {@code kid} desconhecido (no máximo uma vez por {@code min-refresh-interval}, para tolerar a
+ * rotação sem permitir que tokens forjados disparem buscas) e na partida. Se a renovação falhar,
+ * as chaves atuais continuam valendo.
+ */
+@Slf4j
+public class JwkSetCache {
+
+    private final WebClient webClient;
+    private final URI jwkSetUri;
+    private final JwkSetProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock = Clock.systemUTC();
+
+    private final AtomicReference<Keys> current = new AtomicReference<>(Keys.EMPTY);
+    private final AtomicReference<Mono<Keys>> inFlight = new AtomicReference<>();
+    private final AtomicReference<Disposable> scheduled = new AtomicReference<>();
+    private final AtomicLong lastUnknownKidRefresh;
+    private volatile boolean stopped;
+
+    public JwkSetCache(WebClient webClient, URI jwkSetUri, JwkSetProperties properties, MeterRegistry meterRegistry) {
+        this.webClient = webClient;
+        this.jwkSetUri = jwkSetUri;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.lastUnknownKidRefresh = new AtomicLong(System.nanoTime() - properties.getMinRefreshInterval().toNanos());
+        Gauge.builder("jwt.jwk-set.keys", current, keys -> keys.get().byKid().size())
+                .description("Chaves do JWK set em uso")
+                .register(meterRegistry);
+        Gauge.builder("jwt.jwk-set.age", current, keys -> keys.get().age(clock.instant()).toSeconds())
+                .description("Segundos desde a última carga do JWK set")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Carrega o JWK set local, se configurado, e inicia a primeira busca sem aguardar o Keycloak.
+     */
+    public void start() {
+        if (properties.getBootstrapFile() != null && !properties.getBootstrapFile().isBlank()) {
+            loadBootstrap(new File(properties.getBootstrapFile()));
+        }
+        refresh(Trigger.STARTUP).subscribe(keys -> { }, error -> { });
+    }
+
+    public void stop() {
+        stopped = true;
+        Disposable next = scheduled.getAndSet(null);
+        if (next != null) {
+            next.dispose();
+        }
+    }
+
+    /**
+     * Chaves candidatas para o token: a do {@code kid} do header ou, sem {@code kid}, todas.
+     */
+    public Flux<JWK> select(SignedJWT jwt) {
+        String kid = jwt.getHeader().getKeyID();
+        Keys keys = current.get();
+        if (kid == null) {
+            return Flux.fromIterable(keys.all());
+        }
+        JWK jwk = keys.byKid().get(kid);
+        if (jwk != null) {
+            return Flux.just(jwk);
+        }
+        return refreshForUnknownKid(kid)
+                .flatMapMany(refreshed -> Mono.justOrEmpty(refreshed.byKid().get(kid)));
+    }
+
+    private Mono<Keys> refreshForUnknownKid(String kid) {
+        long last = lastUnknownKidRefresh.get();
+        long now = System.nanoTime();
+        if (now - last < properties.getMinRefreshInterval().toNanos() || !lastUnknownKidRefresh.compareAndSet(last, now)) {
+            log.debug("kid {} desconhecido, renovação do JWK set limitada", kid);
+            return Mono.fromSupplier(current::get);
+        }
+        log.info("kid {} desconhecido, renovando o JWK set", kid);
+        return refresh(Trigger.UNKNOWN_KID).onErrorResume(e -> Mono.fromSupplier(current::get));
+    }
+
+    private Mono<Keys> refresh(Trigger trigger) {
+        return Mono.defer(() -> {
+            Mono<Keys> existing = inFlight.get();
+            if (existing != null) {
+                return existing;
+            }
+            Mono<Keys> request = fetch()
+                    .doOnNext(keys -> {
+                        current.set(keys);
+                        count(trigger, "success");
+                        scheduleRefresh(refreshDelay());
+                        log.debug("JWK set renovado ({}) com {} chaves", trigger.tag, keys.byKid().size());
+                    })
+                    .doOnError(error -> {
+                        count(trigger, "failure");
+                        log.warn("Erro ao renovar o JWK set ({}), mantendo as chaves carregadas há {}: {}",
+                                trigger.tag, current.get().age(clock.instant()), error.getMessage());
+                        if (trigger != Trigger.UNKNOWN_KID) {
+                            scheduleRefresh(properties.getMinRefreshInterval());
+                        }
+                    })
+                    .doFinally(signal -> inFlight.set(null))
+                    .cache();
+            if (inFlight.compareAndSet(null, request)) {
+                return request;
+            }
+            return refresh(trigger);
+        });
+    }
+
+    private Mono<Keys> fetch() {
+        return webClient.get()
+                .uri(jwkSetUri)
+                .attribute(OPERATION_ATTRIBUTE, KeycloakCall.JWK_SET.getTag())
+                .retrieve()
+                .bodyToMono(String.class)
+                .map(body -> {
+                    try {
+                        return Keys.of(JWKSet.parse(body), clock.instant());
+                    } catch (ParseException e) {
+                        throw new IllegalStateException("JWK set inválido: " + e.getMessage(), e);
+                    }
+                });
+    }
+
+    private void scheduleRefresh(Duration delay) {
+        if (stopped) {
+            return;
+        }
+        Disposable next = Mono.delay(delay)
+                .subscribe(tick -> refresh(Trigger.SCHEDULED).subscribe(keys -> { }, error -> { }));
+        Disposable previous = scheduled.getAndSet(next);
+        if (previous != null) {
+            previous.dispose();
+        }
+    }
+
+    /**
+     * Renovação {@code refresh-ahead} antes do ttl, nunca antes da metade dele.
+     */
+    private Duration refreshDelay() {
+        Duration ttl = properties.getTtl();
+        Duration delay = ttl.minus(properties.getRefreshAhead());
+        return delay.compareTo(ttl.dividedBy(2)) < 0 ? ttl.dividedBy(2) : delay;
+    }
+
+    private void loadBootstrap(File file) {
+        try {
+            Keys keys = Keys.of(JWKSet.load(file), Instant.ofEpochMilli(file.lastModified()));
+            current.compareAndSet(Keys.EMPTY, keys);
+            log.info("JWK set local carregado de {} com {} chaves", file, keys.byKid().size());
+        } catch (Exception e) {
+            log.warn("Não foi possível carregar o JWK set local {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void count(Trigger trigger, String outcome) {
+        meterRegistry.counter("jwt.jwk-set.refreshes", "trigger", trigger.tag, "outcome", outcome).increment();
+    }
+
+    private enum Trigger {
+        STARTUP("startup"),
+        SCHEDULED("scheduled"),
+        UNKNOWN_KID("unknown-kid");
+
+        private final String tag;
+
+        Trigger(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    /**
+     * Snapshot imutável das chaves públicas, indexado por {@code kid}.
+     */
+    record Keys(List<JWK> all, Map<String, JWK> byKid, Instant loadedAt) {
+
+        static final Keys EMPTY = new Keys(List.of(), Map.of(), Instant.EPOCH);
+
+        static Keys of(JWKSet set, Instant loadedAt) {
+            List<JWK> keys = set.toPublicJWKSet().getKeys();
+            Map<String, JWK> byKid = new HashMap<>();
+            for (JWK key : keys) {
+                if (key.getKeyID() != null) {
+                    byKid.put(key.getKeyID(), key);
+                }
+            }
+            return new Keys(List.copyOf(keys), Map.copyOf(byKid), loadedAt);
+        }
+
+        Duration age(Instant now) {
+            return Duration.between(loadedAt, now);
+        }
+    }
+}
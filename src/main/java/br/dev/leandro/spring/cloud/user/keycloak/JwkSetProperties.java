@@ -0,0 +1,34 @@
+package br.dev.leandro.spring.cloud.user.keycloak;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@Component
+@ConfigurationProperties(prefix = "app.jwt.jwk-set")
+public class JwkSetProperties {
+
+    /**
+     * Validade do JWK set em cache; depois disso as chaves continuam em uso até uma renovação
+     * dar certo, para que uma indisponibilidade do Keycloak não derrube a autenticação.
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+    /**
+     * Antecedência, em relação ao ttl, com que a renovação em background é feita.
+     */
+    private Duration refreshAhead = Duration.ofMinutes(2);
+    /**
+     * Intervalo mínimo entre renovações provocadas por {@code kid} desconhecido, e entre novas
+     * tentativas depois de uma renovação em background com erro.
+     */
+    private Duration minRefreshInterval = Duration.ofSeconds(30);
+    /**
+     * JWK set local (opcional) usado até a primeira busca no Keycloak dar certo.
+     */
+    private String bootstrapFile;
+}
@@ -0,0 +1,31 @@
+package br.dev.leandro.spring.cloud.user.keycloak;
+
+import lombok.Getter;
+
+/**
+ * Tipo lógico de cada requisição HTTP feita ao Keycloak, usado como tag {@code operation} das
+ * métricas e spans em vez da URI, que carrega ids e parâmetros de busca.
+ */
+@Getter
+public enum KeycloakCall {
+
+    TOKEN("token"),
+    JWK_SET("jwk-set"),
+    CREATE_USER("create-user"),
+    GET_USER("get-user"),
+    LIST_USERS("list-users"),
+    COUNT_USERS("count-users"),
+    UPDATE_USER("update-user"),
+    RESET_PASSWORD("reset-password"),
+    DELETE_USER("delete-user"),
+    GET_ROLE("get-role"),
+    LIST_ROLE_USERS("list-role-users"),
+    GET_USER_ROLES("get-user-roles"),
+    ASSIGN_ROLE("assign-role");
+
+    private final String tag;
+
+    KeycloakCall(String tag) {
+        this.tag = tag;
+    }
+}
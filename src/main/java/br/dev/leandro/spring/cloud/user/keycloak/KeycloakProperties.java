@@ -5,6 +5,8 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Setter
 @Getter
 @Component
@@ -15,6 +17,33 @@ public class KeycloakProperties {
     private String clientSecret;
     private String authServerUrl;
     private String realm;
+    private Token token = new Token();
+    private RoleCache roleCache = new RoleCache();
 
-}
+    @Setter
+    @Getter
+    public static class Token {
+        /**
+         * Antecedência com que o token é renovado antes de expirar.
+         */
+        private Duration refreshSkew = Duration.ofSeconds(30);
+        /**
+         * Validade assumida quando o Keycloak não informa {@code expires_in}.
+         */
+        private Duration defaultLifetime = Duration.ofSeconds(60);
+    }
 
+    @Setter
+    @Getter
+    public static class RoleCache {
+        /**
+         * Tempo que o id de uma role permanece em cache.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+        /**
+         * Quantidade máxima de roles mantidas em cache.
+         */
+        private long maximumSize = 1_000;
+    }
+
+}
@@ -0,0 +1,11 @@
+package br.dev.leandro.spring.cloud.user.keycloak;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Role de realm do Keycloak, usada tanto na leitura de {@code /roles/{roleName}} quanto no corpo do
+ * mapeamento de roles do usuário.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record KeycloakRole(String id, String name) {
+}
@@ -0,0 +1,14 @@
+package br.dev.leandro.spring.cloud.user.keycloak;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Resposta do endpoint de token do Keycloak. Apenas os campos usados são mapeados; os demais
+ * ({@code scope}, {@code token_type}, {@code refresh_expires_in}...) são ignorados na leitura.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record KeycloakTokenResponse(
+        @JsonProperty("access_token") String accessToken,
+        @JsonProperty("expires_in") Long expiresIn) {
+}
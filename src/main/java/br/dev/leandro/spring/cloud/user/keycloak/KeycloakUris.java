@@ -0,0 +1,131 @@
+package br.dev.leandro.spring.cloud.user.keycloak;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.util.UriUtils;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * URIs das chamadas ao Keycloak. Os caminhos fixos são compilados uma única vez na inicialização,
+ * com a URL do servidor e o realm já resolvidos; por requisição apenas os ids (como segmento de
+ * caminho) e os parâmetros de consulta são codificados e concatenados, sem parse de template.
+ */
+@Component
+public class KeycloakUris {
+
+    private final URI token;
+    private final URI users;
+    private final URI usersCount;
+    private final PathTemplate user;
+    private final PathTemplate userRoleMappings;
+    private final PathTemplate userResetPassword;
+    private final PathTemplate role;
+    private final PathTemplate roleUsers;
+
+    public KeycloakUris(KeycloakProperties keycloakProperties) {
+        DefaultUriBuilderFactory factory = new DefaultUriBuilderFactory(keycloakProperties.getAuthServerUrl());
+        factory.setDefaultUriVariables(Map.of("realm", keycloakProperties.getRealm()));
+        String admin = factory.expand("/admin/realms/{realm}").toString();
+
+        this.token = factory.expand("/realms/{realm}/protocol/openid-connect/token");
+        this.users = URI.create(admin + "/users");
+        this.usersCount = URI.create(admin + "/users/count");
+        this.user = PathTemplate.compile(admin + "/users/{id}");
+        this.userRoleMappings = PathTemplate.compile(admin + "/users/{id}/role-mappings/realm");
+        this.userResetPassword = PathTemplate.compile(admin + "/users/{id}/reset-password");
+        this.role = PathTemplate.compile(admin + "/roles/{roleName}");
+        this.roleUsers = PathTemplate.compile(admin + "/roles/{roleName}/users");
+    }
+
+    public URI token() {
+        return token;
+    }
+
+    public URI users() {
+        return users;
+    }
+
+    public URI user(String id) {
+        return user.expand(id);
+    }
+
+    public URI userRoleMappings(String userId) {
+        return userRoleMappings.expand(userId);
+    }
+
+    public URI userResetPassword(String id) {
+        return userResetPassword.expand(id);
+    }
+
+    public URI role(String roleName) {
+        return role.expand(roleName);
+    }
+
+    /**
+     * Listagem de usuários com os parâmetros de consulta informados; valores nulos são ignorados.
+     */
+    public URI users(Map<String, ?> queryParams) {
+        return withQuery(users, queryParams);
+    }
+
+    /**
+     * Usuários com a role de realm informada, com os parâmetros de consulta informados.
+     */
+    public URI roleUsers(String roleName, Map<String, ?> queryParams) {
+        return withQuery(roleUsers.expand(roleName), queryParams);
+    }
+
+    public URI usersCount(Map<String, ?> queryParams) {
+        return withQuery(usersCount, queryParams);
+    }
+
+    private static URI withQuery(URI base, Map<String, ?> queryParams) {
+        StringBuilder uri = new StringBuilder(base.toString());
+        char separator = '?';
+        for (Map.Entry<String, ?> param : queryParams.entrySet()) {
+            if (param.getValue() != null) {
+                uri.append(separator)
+                        .append(param.getKey())
+                        .append('=')
+                        .append(UriUtils.encode(String.valueOf(param.getValue()), StandardCharsets.UTF_8));
+                separator = '&';
+            }
+        }
+        return URI.create(uri.toString());
+    }
+
+    /**
+     * Template de caminho pré-compilado em trechos literais e variáveis, na ordem em que aparecem.
+     */
+    record PathTemplate(List<String> literals, int variables) {
+
+        static PathTemplate compile(String template) {
+            List<String> literals = new ArrayList<>();
+            int start = 0;
+            int open;
+            while ((open = template.indexOf('{', start)) >= 0) {
+                literals.add(template.substring(start, open));
+                start = template.indexOf('}', open) + 1;
+            }
+            literals.add(template.substring(start));
+            return new PathTemplate(List.copyOf(literals), literals.size() - 1);
+        }
+
+        URI expand(String... values) {
+            if (values.length != variables) {
+                throw new IllegalArgumentException("Esperadas " + variables + " variáveis, recebidas " + values.length);
+            }
+            StringBuilder uri = new StringBuilder(literals.get(0));
+            for (int i = 0; i < values.length; i++) {
+                uri.append(UriUtils.encodePathSegment(values[i], StandardCharsets.UTF_8))
+                        .append(literals.get(i + 1));
+            }
+            return URI.create(uri.toString());
+        }
+    }
+}
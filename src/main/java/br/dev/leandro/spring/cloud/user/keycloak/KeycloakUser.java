@@ -0,0 +1,12 @@
+package br.dev.leandro.spring.cloud.user.keycloak;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Representação resumida ({@code briefRepresentation}) de um usuário do Keycloak, com o id que o
+ * {@code UserDto} não carrega.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record KeycloakUser(String id, String username, String email, String firstName, String lastName,
+                           Boolean enabled) {
+}
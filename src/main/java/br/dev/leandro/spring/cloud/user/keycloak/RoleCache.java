@@ -0,0 +1,80 @@
+package br.dev.leandro.spring.cloud.user.keycloak;
+
+import br.dev.leandro.spring.cloud.user.exception.ResourceNotFoundException;
+import br.dev.leandro.spring.cloud.user.resilience.KeycloakOperation;
+import br.dev.leandro.spring.cloud.user.utils.WebClientUtils;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.bus.event.RefreshRemoteApplicationEvent;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+
+/**
+ * Cache local de nome de role para id de role do realm.
+ * Em caso de miss busca apenas a role solicitada em {@code /roles/{role-name}}.
+ */
+@Slf4j
+@Component
+public class RoleCache {
+
+    private final WebClientUtils webClientUtils;
+    private final KeycloakUris keycloakUris;
+    private final AsyncCache<String, String> roleIds;
+
+    public RoleCache(WebClientUtils webClientUtils, KeycloakUris keycloakUris, KeycloakProperties keycloakProperties,
+                     MeterRegistry meterRegistry) {
+        this.webClientUtils = webClientUtils;
+        this.keycloakUris = keycloakUris;
+        this.roleIds = Caffeine.newBuilder()
+                .expireAfterWrite(keycloakProperties.getRoleCache().getTtl())
+                .maximumSize(keycloakProperties.getRoleCache().getMaximumSize())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, roleIds, "keycloak.roles");
+        Gauge.builder("keycloak.roles.cache.hit.ratio", roleIds, cache -> cache.synchronous().stats().hitRate())
+                .description("Proporção de buscas de role atendidas pelo cache local")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Retorna o id da role, consultando o Keycloak apenas se ela não estiver em cache.
+     * Buscas concorrentes pela mesma role compartilham a mesma requisição.
+     */
+    public Mono<String> getRoleId(String roleName) {
+        return Mono.fromFuture(() -> roleIds.get(roleName, (name, executor) ->
+                webClientUtils.withAdminToken(KeycloakOperation.GET_ROLE, token -> fetchRoleId(token, name)).toFuture()), true);
+    }
+
+    @EventListener({RefreshRemoteApplicationEvent.class, RefreshScopeRefreshedEvent.class})
+    public void onRefresh() {
+        log.info("Evento de refresh recebido, limpando cache de roles");
+        invalidateAll();
+    }
+
+    public void invalidateAll() {
+        roleIds.synchronous().invalidateAll();
+    }
+
+    private Mono<String> fetchRoleId(String token, String roleName) {
+        return webClientUtils.createGetRequest(token, KeycloakCall.GET_ROLE, keycloakUris.role(roleName))
+                .exchangeToMono(response -> {
+                    if (response.statusCode().is2xxSuccessful()) {
+                        return response.bodyToMono(KeycloakRole.class)
+                                .map(KeycloakRole::id);
+                    }
+                    if (response.statusCode() == HttpStatus.NOT_FOUND) {
+                        return Mono.error(new ResourceNotFoundException("Role não encontrada: " + roleName));
+                    }
+                    log.error("Erro ao buscar role {}: {}", roleName, response.statusCode());
+                    return response.createException().flatMap(Mono::error);
+                });
+    }
+}
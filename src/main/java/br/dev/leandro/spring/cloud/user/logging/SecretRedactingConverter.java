@@ -0,0 +1,165 @@
+package br.dev.leandro.spring.cloud.user.logging;
+
+import ch.qos.logback.classic.pattern.MessageConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * Conversor de mensagem do Logback ({@code %redactedMsg}) que mascara segredos antes de a linha
+ * chegar a qualquer appender: JWTs, o valor de headers {@code Bearer} e os valores de campos como
+ * {@code password}, {@code client_secret} e {@code access_token} ({@code campo=valor} ou
+ * {@code "campo":"valor"}, com o valor entre aspas mascarado até a aspa de fechamento). A mensagem é
+ * percorrida uma única vez e só é copiada quando há algo a mascarar, então mensagens comuns não alocam.
+ * O texto das exceções passa pela mesma máscara em {@link SecretRedactingThrowableConverter}.
+ */
+public class SecretRedactingConverter extends MessageConverter {
+
+    static final String MASK = "[REDACTED]";
+
+    private static final String[] SECRET_FIELDS = {"password", "secret", "_token"};
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        return redact(super.convert(event));
+    }
+
+    public static String redact(String message) {
+        if (message == null) {
+            return null;
+        }
+        StringBuilder redacted = null;
+        int copied = 0;
+        int length = message.length();
+        int i = 0;
+        while (i < length) {
+            int valueStart = -1;
+            int valueEnd = -1;
+            char c = message.charAt(i);
+            if (c == 'e' && message.startsWith("eyJ", i)) {
+                valueEnd = jwtEnd(message, i);
+                valueStart = valueEnd > 0 ? i : -1;
+            } else if ((c == 'b' || c == 'B') && message.regionMatches(true, i, "bearer ", 0, 7)) {
+                valueStart = skipWhitespace(message, i + 7);
+                valueEnd = valueEnd(message, valueStart);
+            } else {
+                int keyEnd = secretFieldEnd(message, i, c);
+                if (keyEnd > 0) {
+                    valueStart = fieldValueStart(message, keyEnd);
+                    if (valueStart > 0 && valueStart < length && message.charAt(valueStart) == '"') {
+                        // Valor entre aspas vai até a aspa de fechamento, mesmo com espaços
+                        valueStart++;
+                        valueEnd = quotedValueEnd(message, valueStart);
+                    } else {
+                        valueEnd = valueStart > 0 ? valueEnd(message, valueStart) : -1;
+                    }
+                }
+            }
+
+            if (valueStart >= 0 && valueEnd > valueStart) {
+                if (redacted == null) {
+                    redacted = new StringBuilder(length);
+                }
+                redacted.append(message, copied, valueStart).append(MASK);
+                copied = valueEnd;
+                i = valueEnd;
+            } else {
+                i++;
+            }
+        }
+        if (redacted == null) {
+            return message;
+        }
+        return redacted.append(message, copied, length).toString();
+    }
+
+    /**
+     * Fim do JWT iniciado em {@code start} (três partes base64url separadas por ponto), ou -1.
+     */
+    private static int jwtEnd(String message, int start) {
+        int dots = 0;
+        int i = start;
+        while (i < message.length()) {
+            char c = message.charAt(i);
+            if (c == '.') {
+                dots++;
+            } else if (!Character.isLetterOrDigit(c) && c != '-' && c != '_') {
+                break;
+            }
+            i++;
+        }
+        return dots == 2 ? i : -1;
+    }
+
+    /**
+     * Fim do nome do campo sensível que começa em {@code i}, incluindo o restante do identificador
+     * ({@code password_confirmation}, {@code secretKey}...), ou -1.
+     */
+    private static int secretFieldEnd(String message, int i, char c) {
+        char lower = Character.toLowerCase(c);
+        for (String field : SECRET_FIELDS) {
+            if (field.charAt(0) == lower && message.regionMatches(true, i, field, 0, field.length())) {
+                int end = i + field.length();
+                while (end < message.length() && (Character.isLetterOrDigit(message.charAt(end)) || message.charAt(end) == '_')) {
+                    end++;
+                }
+                return end;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Início do valor (a aspa de abertura, se houver) após {@code campo} ou {@code "campo"} seguido
+     * de {@code :} ou {@code =}; -1 quando o nome não é seguido de um separador (texto comum).
+     */
+    private static int fieldValueStart(String message, int keyEnd) {
+        int i = keyEnd;
+        if (i < message.length() && message.charAt(i) == '"') {
+            i++;
+        }
+        i = skipWhitespace(message, i);
+        if (i >= message.length() || (message.charAt(i) != ':' && message.charAt(i) != '=')) {
+            return -1;
+        }
+        return skipWhitespace(message, i + 1);
+    }
+
+    /**
+     * Posição da aspa que fecha o valor iniciado em {@code start}, ignorando aspas escapadas; o fim
+     * da mensagem se ela não fecha.
+     */
+    private static int quotedValueEnd(String message, int start) {
+        int i = start;
+        while (i < message.length()) {
+            char c = message.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '"') {
+                return i;
+            }
+            i++;
+        }
+        return message.length();
+    }
+
+    private static int valueEnd(String message, int start) {
+        int i = start;
+        while (i < message.length()) {
+            char c = message.charAt(i);
+            if (c == '"' || c == ',' || c == ';' || c == '&' || c == '}' || c == ']' || c == ')' || Character.isWhitespace(c)) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipWhitespace(String message, int start) {
+        int i = start;
+        while (i < message.length() && Character.isWhitespace(message.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,17 @@
+package br.dev.leandro.spring.cloud.user.logging;
+
+import ch.qos.logback.classic.pattern.ThrowableProxyConverter;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+
+/**
+ * Conversor de exceção do Logback ({@code %redactedEx}): o stack trace, com as mensagens da exceção
+ * e das causas, passa pela máscara de {@link SecretRedactingConverter}. Substitui o {@code %ex}
+ * que o Logback acrescenta por padrão, que não seria mascarado.
+ */
+public class SecretRedactingThrowableConverter extends ThrowableProxyConverter {
+
+    @Override
+    protected String throwableProxyToString(IThrowableProxy throwableProxy) {
+        return SecretRedactingConverter.redact(super.throwableProxyToString(throwableProxy));
+    }
+}
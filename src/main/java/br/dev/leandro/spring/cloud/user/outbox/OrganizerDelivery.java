@@ -0,0 +1,15 @@
+package br.dev.leandro.spring.cloud.user.outbox;
+
+/**
+ * Como o cadastro do organizador é enviado ao serviço de eventos após a criação do usuário.
+ */
+public enum OrganizerDelivery {
+    /**
+     * Na própria requisição de criação; uma falha do serviço de eventos falha a criação.
+     */
+    SYNC,
+    /**
+     * Gravado no outbox local e entregue em background, com novas tentativas.
+     */
+    OUTBOX
+}
@@ -0,0 +1,317 @@
+package br.dev.leandro.spring.cloud.user.outbox;
+
+import br.dev.leandro.spring.cloud.user.dto.OrganizerCreateDto;
+import br.dev.leandro.spring.cloud.user.keycloak.AdminTokenProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static br.dev.leandro.spring.cloud.user.config.OperationClientRequestObservationConvention.OPERATION_ATTRIBUTE;
+
+/**
+ * Outbox em arquivo para o cadastro de organizadores no serviço de eventos.
+ * Cada registro é um arquivo JSON por usuário, gravado com fsync antes de a criação do usuário
+ * responder. Um worker em background entrega os registros pendentes com backoff exponencial;
+ * o envio leva o header {@code Idempotency-Key} e um 409 é tratado como já cadastrado.
+ * Como a requisição original já terminou, a entrega usa o token administrativo em vez do token do usuário.
+ */
+@Slf4j
+@Component
+public class OrganizerOutbox {
+
+    /**
+     * Operação do cadastro de organizer nas métricas do serviço de eventos.
+     */
+    public static final String REGISTER_ORGANIZER = "register-organizer";
+    private static final String ENTRY_SUFFIX = ".json";
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    private final WebClient eventClient;
+    private final AdminTokenProvider adminTokenProvider;
+    private final ObjectMapper objectMapper;
+    private final OrganizerProperties properties;
+    private final String organizerPath;
+    private final Path directory;
+    private final Path deadLetters;
+    private final Clock clock = Clock.systemUTC();
+
+    // Usuários com entrega em andamento, evita envio duplicado entre o worker e a entrega imediata
+    private final Set<String> inDelivery = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final MeterRegistry meterRegistry;
+    private Disposable worker;
+
+    public OrganizerOutbox(@Qualifier("eventWebClient") WebClient eventClient,
+                           AdminTokenProvider adminTokenProvider,
+                           ObjectMapper objectMapper,
+                           OrganizerProperties properties,
+                           MeterRegistry meterRegistry,
+                           @Value("${event.organizer-path}") String organizerPath) {
+        this.eventClient = eventClient;
+        this.adminTokenProvider = adminTokenProvider;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.organizerPath = organizerPath;
+        this.meterRegistry = meterRegistry;
+        this.directory = Paths.get(properties.getOutbox().getDirectory());
+        this.deadLetters = directory.resolve("dead");
+        Gauge.builder("organizer.outbox.pending", pending, AtomicInteger::get)
+                .description("Cadastros de organizador aguardando entrega ao serviço de eventos")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.getDelivery() == OrganizerDelivery.OUTBOX;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!isEnabled() || worker != null) {
+            return;
+        }
+        try {
+            Files.createDirectories(deadLetters);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível criar o diretório do outbox: " + directory, e);
+        }
+        log.info("Outbox de organizadores em {}, intervalo de {}", directory.toAbsolutePath(), properties.getOutbox().getPollInterval());
+        worker = Flux.interval(Duration.ZERO, properties.getOutbox().getPollInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> deliverDue()
+                        .onErrorResume(e -> {
+                            log.error("Erro ao processar o outbox de organizadores: {}", e.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (worker != null) {
+            worker.dispose();
+        }
+    }
+
+    /**
+     * Grava o cadastro no journal e completa após a gravação estar em disco. A entrega é iniciada
+     * imediatamente, sem que o chamador aguarde o serviço de eventos. Um novo registro para o mesmo
+     * usuário substitui o anterior.
+     */
+    public Mono<Void> enqueue(OrganizerCreateDto organizer) {
+        OrganizerOutboxEntry entry = new OrganizerOutboxEntry(organizer, 0, clock.instant(), null);
+        return Mono.fromRunnable(() -> write(entry))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnSuccess(v -> {
+                    pending.incrementAndGet();
+                    deliver(entry).subscribe();
+                })
+                .then();
+    }
+
+    private Mono<Void> deliverDue() {
+        return Mono.fromCallable(this::readDue)
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(Flux::fromIterable)
+                .flatMap(this::deliver, properties.getOutbox().getConcurrency())
+                .then();
+    }
+
+    /**
+     * Entrega o registro do usuário. O registro é relido do disco depois de reservada a entrega: o
+     * que foi listado pelo worker pode já ter sido entregue e removido pela entrega imediata.
+     */
+    private Mono<Void> deliver(OrganizerOutboxEntry listed) {
+        String userId = listed.userId();
+        if (!inDelivery.add(userId)) {
+            return Mono.empty();
+        }
+        return Mono.fromCallable(() -> read(userId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(IOException.class, error -> {
+                    log.error("Registro ilegível no outbox, ignorando o usuário {}: {}", userId, error.getMessage());
+                    return Mono.empty();
+                })
+                .flatMap(this::send)
+                .doFinally(signal -> inDelivery.remove(userId))
+                .then();
+    }
+
+    private Mono<Void> send(OrganizerOutboxEntry entry) {
+        return adminTokenProvider.getToken()
+                .flatMap(token -> post(entry, token)
+                        .onErrorResume(WebClientResponseException.Unauthorized.class, error -> {
+                            log.warn("Token administrativo rejeitado pelo serviço de eventos, renovando e repetindo a entrega");
+                            adminTokenProvider.invalidate(token);
+                            return adminTokenProvider.getToken().flatMap(renewed -> post(entry, renewed));
+                        }))
+                .then(Mono.fromRunnable(() -> delivered(entry)).subscribeOn(Schedulers.boundedElastic()))
+                .onErrorResume(error -> Mono.fromRunnable(() -> failed(entry, error)).subscribeOn(Schedulers.boundedElastic()))
+                .then();
+    }
+
+    private Mono<Void> post(OrganizerOutboxEntry entry, String token) {
+        return eventClient.post()
+                .uri(organizerPath)
+                .attribute(OPERATION_ATTRIBUTE, REGISTER_ORGANIZER)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .header(IDEMPOTENCY_KEY, "organizer-" + entry.userId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(entry.organizer())
+                .retrieve()
+                // Já cadastrado em uma entrega anterior
+                .onStatus(status -> status.value() == HttpStatus.CONFLICT.value(), response -> Mono.empty())
+                .toBodilessEntity()
+                .then();
+    }
+
+    private void delivered(OrganizerOutboxEntry entry) {
+        try {
+            if (Files.deleteIfExists(entryPath(entry.userId()))) {
+                pending.decrementAndGet();
+            }
+            outcome("success");
+            log.info("Organizador do usuário {} entregue ao serviço de eventos", entry.userId());
+        } catch (IOException e) {
+            log.error("Falha ao remover registro entregue do usuário {}: {}", entry.userId(), e.getMessage());
+        }
+    }
+
+    private void failed(OrganizerOutboxEntry entry, Throwable error) {
+        OrganizerProperties.Outbox outbox = properties.getOutbox();
+        // 401 persistente é problema de credencial, não do cadastro: segue com backoff em vez de descartar
+        boolean permanent = error instanceof WebClientResponseException response
+                && response.getStatusCode().is4xxClientError()
+                && response.getStatusCode().value() != HttpStatus.UNAUTHORIZED.value()
+                && response.getStatusCode().value() != HttpStatus.REQUEST_TIMEOUT.value()
+                && response.getStatusCode().value() != HttpStatus.TOO_MANY_REQUESTS.value();
+        int attempts = entry.attempts() + 1;
+        Path path = entryPath(entry.userId());
+        if (!Files.exists(path)) {
+            // Removido enquanto a entrega estava em andamento; não ressuscita o registro
+            log.debug("Registro do usuário {} não está mais no outbox, falha ignorada: {}", entry.userId(), error.getMessage());
+            return;
+        }
+        try {
+            if (permanent || attempts >= outbox.getMaxAttempts()) {
+                Files.move(path, deadLetters.resolve(path.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                pending.decrementAndGet();
+                outcome("dead");
+                log.error("Cadastro do organizador do usuário {} descartado após {} tentativas: {}",
+                        entry.userId(), attempts, error.getMessage());
+                return;
+            }
+            long factor = 1L << Math.min(attempts - 1, 20);
+            Duration backoff = outbox.getMinBackoff().multipliedBy(factor);
+            if (backoff.compareTo(outbox.getMaxBackoff()) > 0) {
+                backoff = outbox.getMaxBackoff();
+            }
+            write(entry.failed(clock.instant().plus(backoff), error.getMessage()));
+            outcome("retry");
+            log.warn("Falha ao entregar organizador do usuário {} (tentativa {}), nova tentativa em {}: {}",
+                    entry.userId(), attempts, backoff, error.getMessage());
+        } catch (NoSuchFileException e) {
+            log.debug("Registro do usuário {} removido durante a atualização do outbox", entry.userId());
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Falha ao atualizar o outbox do usuário {}: {}", entry.userId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Registro atual do usuário, ou {@code null} se não está mais no outbox.
+     */
+    private OrganizerOutboxEntry read(String userId) throws IOException {
+        try {
+            return objectMapper.readValue(Files.readAllBytes(entryPath(userId)), OrganizerOutboxEntry.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private List<OrganizerOutboxEntry> readDue() throws IOException {
+        Instant now = clock.instant();
+        List<OrganizerOutboxEntry> due = new ArrayList<>();
+        List<Path> files;
+        try (Stream<Path> entries = Files.list(directory)) {
+            files = entries.filter(file -> file.getFileName().toString().endsWith(ENTRY_SUFFIX)).toList();
+        }
+        pending.set(files.size());
+        for (Path file : files) {
+            try {
+                OrganizerOutboxEntry entry = objectMapper.readValue(Files.readAllBytes(file), OrganizerOutboxEntry.class);
+                if (!entry.nextAttemptAt().isAfter(now)) {
+                    due.add(entry);
+                }
+            } catch (NoSuchFileException e) {
+                // Entregue entre a listagem e a leitura
+            } catch (IOException e) {
+                log.error("Registro ilegível no outbox, ignorando {}: {}", file, e.getMessage());
+            }
+        }
+        return due;
+    }
+
+    /**
+     * Grava em um arquivo temporário com fsync e substitui o registro com move atômico,
+     * para que uma queda no meio da gravação nunca deixe um registro truncado.
+     */
+    private void write(OrganizerOutboxEntry entry) {
+        Path target = entryPath(entry.userId());
+        Path temp = directory.resolve(target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            byte[] json = objectMapper.writeValueAsBytes(entry);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(json));
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar o outbox do usuário " + entry.userId(), e);
+        }
+    }
+
+    private Path entryPath(String userId) {
+        return directory.resolve(userId.replaceAll("[^A-Za-z0-9-]", "_") + ENTRY_SUFFIX);
+    }
+
+    private void outcome(String outcome) {
+        meterRegistry.counter("organizer.outbox.deliveries", "outcome", outcome).increment();
+    }
+}
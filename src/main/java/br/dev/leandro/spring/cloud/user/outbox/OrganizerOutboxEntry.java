@@ -0,0 +1,23 @@
+package br.dev.leandro.spring.cloud.user.outbox;
+
+import br.dev.leandro.spring.cloud.user.dto.OrganizerCreateDto;
+
+import java.time.Instant;
+
+/**
+ * Registro pendente no outbox. Há no máximo um por usuário, o que torna o reenvio idempotente.
+ */
+public record OrganizerOutboxEntry(
+        OrganizerCreateDto organizer,
+        int attempts,
+        Instant nextAttemptAt,
+        String lastError) {
+
+    public String userId() {
+        return organizer.userId();
+    }
+
+    OrganizerOutboxEntry failed(Instant nextAttemptAt, String error) {
+        return new OrganizerOutboxEntry(organizer, attempts + 1, nextAttemptAt, error);
+    }
+}
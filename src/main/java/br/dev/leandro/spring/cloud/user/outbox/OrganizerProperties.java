@@ -0,0 +1,35 @@
+package br.dev.leandro.spring.cloud.user.outbox;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@Component
+@ConfigurationProperties(prefix = "app.organizer")
+public class OrganizerProperties {
+
+    private OrganizerDelivery delivery = OrganizerDelivery.SYNC;
+    private Outbox outbox = new Outbox();
+
+    @Setter
+    @Getter
+    public static class Outbox {
+        /**
+         * Diretório do journal; deve ficar em um volume persistente.
+         */
+        private String directory = "data/organizer-outbox";
+        private Duration pollInterval = Duration.ofSeconds(5);
+        /**
+         * Tentativas antes de mover o registro para {@code dead/}.
+         */
+        private int maxAttempts = 10;
+        private Duration minBackoff = Duration.ofSeconds(1);
+        private Duration maxBackoff = Duration.ofMinutes(5);
+        private int concurrency = 4;
+    }
+}
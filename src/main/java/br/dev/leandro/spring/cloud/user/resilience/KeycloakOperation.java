@@ -0,0 +1,37 @@
+package br.dev.leandro.spring.cloud.user.resilience;
+
+import lombok.Getter;
+import org.springframework.http.HttpMethod;
+
+/**
+ * Chamadas administrativas feitas ao Keycloak. Cada operação tem o seu próprio circuit breaker,
+ * e apenas as idempotentes (GET, PUT e DELETE) são repetidas em caso de falha transitória.
+ */
+@Getter
+public enum KeycloakOperation {
+
+    CREATE_USER("keycloak-users-create", HttpMethod.POST, false),
+    GET_USER("keycloak-users-get", HttpMethod.GET, true),
+    LIST_USERS("keycloak-users-list", HttpMethod.GET, false),
+    UPDATE_USER("keycloak-users-update", HttpMethod.PUT, false),
+    DELETE_USER("keycloak-users-delete", HttpMethod.DELETE, false),
+    GET_ROLE("keycloak-roles-get", HttpMethod.GET, true),
+    ASSIGN_ROLE("keycloak-roles-assign", HttpMethod.POST, false);
+
+    private final String breakerName;
+    private final HttpMethod method;
+    /**
+     * Operação barata e somente leitura, que pode receber uma requisição de hedge.
+     */
+    private final boolean hedgeable;
+
+    KeycloakOperation(String breakerName, HttpMethod method, boolean hedgeable) {
+        this.breakerName = breakerName;
+        this.method = method;
+        this.hedgeable = hedgeable;
+    }
+
+    public boolean isIdempotent() {
+        return method == HttpMethod.GET || method == HttpMethod.PUT || method == HttpMethod.DELETE;
+    }
+}
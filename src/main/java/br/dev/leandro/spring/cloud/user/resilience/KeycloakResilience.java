@@ -0,0 +1,156 @@
+package br.dev.leandro.spring.cloud.user.resilience;
+
+import br.dev.leandro.spring.cloud.user.exception.KeycloakServerException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.PrematureCloseException;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Circuit breaker por operação, bulkhead compartilhado e retry com jitter para as chamadas
+ * administrativas ao Keycloak. Apenas falhas transitórias (5xx, 429, timeouts e erros de conexão)
+ * contam para abrir o circuito ou disparam uma nova tentativa.
+ */
+@Slf4j
+@Component
+public class KeycloakResilience {
+
+    private static final String BULKHEAD_NAME = "keycloak-admin";
+
+    private final ResilienceProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final Bulkhead bulkhead;
+
+    public KeycloakResilience(ResilienceProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+
+        ResilienceProperties.CircuitBreaker breaker = properties.getCircuitBreaker();
+        this.circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(breaker.getFailureRateThreshold())
+                .slowCallRateThreshold(breaker.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(breaker.getSlowCallDurationThreshold())
+                .slidingWindowSize(breaker.getSlidingWindowSize())
+                .minimumNumberOfCalls(breaker.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(breaker.getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(breaker.getPermittedNumberOfCallsInHalfOpenState())
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .recordException(KeycloakResilience::isTransient)
+                .build());
+        this.circuitBreakers.getEventPublisher().onEntryAdded(event ->
+                event.getAddedEntry().getEventPublisher().onStateTransition(transition ->
+                        log.warn("Circuit breaker {}: {}", transition.getCircuitBreakerName(), transition.getStateTransition())));
+
+        // maxWaitDuration zero: a permissão nunca bloqueia a thread do event loop
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(properties.getBulkhead().getMaxConcurrentCalls())
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        this.bulkhead = bulkheads.bulkhead(BULKHEAD_NAME);
+
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+        for (KeycloakOperation operation : KeycloakOperation.values()) {
+            circuitBreakers.circuitBreaker(operation.getBreakerName());
+        }
+    }
+
+    /**
+     * Aplica timeout, bulkhead e circuit breaker a cada tentativa da chamada e, se a operação for
+     * idempotente, repete falhas transitórias com backoff exponencial e jitter.
+     */
+    public <T> Mono<T> execute(KeycloakOperation operation, Mono<T> call) {
+        CircuitBreaker circuitBreaker = circuitBreakers.circuitBreaker(operation.getBreakerName());
+        Mono<T> attempt = call
+                .timeout(properties.getAttemptTimeout())
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .doOnError(CallNotPermittedException.class, e -> rejected(operation, "circuit_open"))
+                .doOnError(BulkheadFullException.class, e -> rejected(operation, "bulkhead"));
+        if (operation.isHedgeable() && properties.getHedge().isEnabled()) {
+            attempt = hedge(operation, attempt);
+        }
+        ResilienceProperties.Retry retry = properties.getRetry();
+        if (!operation.isIdempotent() || retry.getMaxRetries() <= 0) {
+            return attempt;
+        }
+        return attempt.retryWhen(Retry.backoff(retry.getMaxRetries(), retry.getMinBackoff())
+                .maxBackoff(retry.getMaxBackoff())
+                .jitter(retry.getJitter())
+                .filter(KeycloakResilience::isTransient)
+                .doBeforeRetry(signal -> {
+                    meterRegistry.counter("keycloak.admin.retries", "operation", operation.getBreakerName()).increment();
+                    log.warn("Falha transitória em {}, tentativa {}: {}", operation.getBreakerName(),
+                            signal.totalRetries() + 1, signal.failure().getMessage());
+                })
+                // Propaga o erro original em vez de RetryExhaustedException
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    /**
+     * Fecha todos os circuitos, descartando o histórico de chamadas.
+     */
+    public void reset() {
+        circuitBreakers.getAllCircuitBreakers().forEach(CircuitBreaker::reset);
+    }
+
+    public CircuitBreaker.State getState(KeycloakOperation operation) {
+        return circuitBreakers.circuitBreaker(operation.getBreakerName()).getState();
+    }
+
+    /**
+     * Se a chamada não sinalizar nada dentro do atraso configurado, dispara uma segunda e usa a
+     * primeira resposta. Depois do disparo, o erro de uma das chamadas não descarta a outra, que
+     * continua em andamento; o erro só é propagado quando as duas falham. Um erro da primeira antes
+     * do atraso é propagado sem disparar a segunda.
+     */
+    private <T> Mono<T> hedge(KeycloakOperation operation, Mono<T> call) {
+        return Mono.defer(() -> {
+            Mono<T> primary = call.cache();
+            AtomicBoolean hedged = new AtomicBoolean();
+            Mono<T> backup = Mono.delay(properties.getHedge().getDelay())
+                    .then(Mono.defer(() -> {
+                        hedged.set(true);
+                        meterRegistry.counter("keycloak.admin.hedges", "operation", operation.getBreakerName()).increment();
+                        return call.onErrorResume(e -> primary);
+                    }));
+            // Com a segunda chamada em andamento, quem decide um erro da primeira é a segunda
+            return Mono.firstWithSignal(primary.onErrorResume(e -> hedged.get(), e -> Mono.never()), backup);
+        });
+    }
+
+    private void rejected(KeycloakOperation operation, String reason) {
+        meterRegistry.counter("keycloak.admin.rejections", "operation", operation.getBreakerName(), "reason", reason).increment();
+    }
+
+    static boolean isTransient(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError() || response.getStatusCode().value() == 429;
+        }
+        return error instanceof KeycloakServerException
+                || error instanceof WebClientRequestException
+                || error instanceof PrematureCloseException
+                || error instanceof TimeoutException;
+    }
+}
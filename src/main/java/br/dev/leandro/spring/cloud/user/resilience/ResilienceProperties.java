@@ -0,0 +1,70 @@
+package br.dev.leandro.spring.cloud.user.resilience;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuração da camada de resiliência das chamadas administrativas ao Keycloak.
+ */
+@Setter
+@Getter
+@Component
+@ConfigurationProperties(prefix = "app.resilience")
+public class ResilienceProperties {
+
+    /**
+     * Tempo máximo de cada tentativa, abaixo do responseTimeout do pool de conexões.
+     */
+    private Duration attemptTimeout = Duration.ofSeconds(3);
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private Bulkhead bulkhead = new Bulkhead();
+    private Retry retry = new Retry();
+    private Hedge hedge = new Hedge();
+
+    @Setter
+    @Getter
+    public static class CircuitBreaker {
+        private float failureRateThreshold = 50;
+        private float slowCallRateThreshold = 80;
+        private Duration slowCallDurationThreshold = Duration.ofSeconds(2);
+        private int slidingWindowSize = 20;
+        private int minimumNumberOfCalls = 10;
+        private Duration waitDurationInOpenState = Duration.ofSeconds(10);
+        private int permittedNumberOfCallsInHalfOpenState = 3;
+    }
+
+    @Setter
+    @Getter
+    public static class Bulkhead {
+        /**
+         * Chamadas administrativas simultâneas; as excedentes são rejeitadas sem aguardar.
+         */
+        private int maxConcurrentCalls = 64;
+    }
+
+    @Setter
+    @Getter
+    public static class Retry {
+        /**
+         * Repetições após a primeira tentativa, apenas para operações idempotentes.
+         */
+        private int maxRetries = 2;
+        private Duration minBackoff = Duration.ofMillis(100);
+        private Duration maxBackoff = Duration.ofSeconds(1);
+        private double jitter = 0.5;
+    }
+
+    @Setter
+    @Getter
+    public static class Hedge {
+        /**
+         * Envia uma segunda busca de usuário por id se a primeira não responder dentro de {@code delay}.
+         */
+        private boolean enabled = false;
+        private Duration delay = Duration.ofMillis(300);
+    }
+}
@@ -0,0 +1,19 @@
+package br.dev.leandro.spring.cloud.user.service;
+
+/**
+ * Como {@link UserService#findAllUsers} obtém o total de usuários da busca.
+ */
+public enum CountStrategy {
+    /**
+     * Consulta {@code /users/count} com o mesmo filtro em toda requisição.
+     */
+    EXACT,
+    /**
+     * Consulta {@code /users/count} e guarda o total por termo de busca durante um TTL.
+     */
+    CACHED,
+    /**
+     * Não consulta o total; busca {@code max + 1} usuários apenas para saber se há próxima página.
+     */
+    NONE
+}
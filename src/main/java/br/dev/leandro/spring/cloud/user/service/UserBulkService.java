@@ -0,0 +1,64 @@
+package br.dev.leandro.spring.cloud.user.service;
+
+import br.dev.leandro.spring.cloud.user.dto.BulkUserResult;
+import br.dev.leandro.spring.cloud.user.dto.UserDto;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Cadastro em lote de usuários. Os itens são consumidos sob demanda e processados com
+ * concorrência limitada, de forma que apenas {@code app.bulk.concurrency} cadastros fiquem
+ * em memória ao mesmo tempo. O token administrativo é compartilhado pelo cache do
+ * {@link br.dev.leandro.spring.cloud.user.keycloak.AdminTokenProvider}.
+ */
+@Slf4j
+@Service
+public class UserBulkService {
+
+    private final UserService userService;
+    private final Validator validator;
+    private final int concurrency;
+
+    public UserBulkService(UserService userService,
+                           Validator validator,
+                           @Value("${app.bulk.concurrency:8}") int concurrency) {
+        this.userService = userService;
+        this.validator = validator;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Cria os usuários recebidos e emite o resultado de cada um assim que termina,
+     * sem respeitar a ordem de entrada. Falhas individuais não interrompem o lote.
+     */
+    public Flux<BulkUserResult> createUsers(Flux<UserDto> users) {
+        return users.index()
+                .flatMap(item -> createUser(item.getT1(), item.getT2()), concurrency)
+                .doOnComplete(() -> log.info("Cadastro em lote finalizado"));
+    }
+
+    private Mono<BulkUserResult> createUser(long index, UserDto userDto) {
+        Set<ConstraintViolation<UserDto>> violations = validator.validate(userDto);
+        if (!violations.isEmpty()) {
+            String error = violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(" "));
+            return Mono.just(BulkUserResult.invalid(index, userDto.username(), error));
+        }
+        return userService.createUser(userDto)
+                .thenReturn(BulkUserResult.created(index, userDto.username()))
+                .onErrorResume(e -> {
+                    log.warn("Falha ao cadastrar usuário {} do lote: {}", userDto.username(), e.getMessage());
+                    return Mono.just(BulkUserResult.failed(index, userDto.username(), e.getMessage()));
+                });
+    }
+}
@@ -0,0 +1,86 @@
+package br.dev.leandro.spring.cloud.user.service;
+
+import br.dev.leandro.spring.cloud.user.keycloak.KeycloakCall;
+import br.dev.leandro.spring.cloud.user.keycloak.KeycloakUris;
+import br.dev.leandro.spring.cloud.user.utils.WebClientUtils;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Obtém o total de usuários de uma busca conforme a {@link CountStrategy} configurada.
+ */
+@Slf4j
+@Service
+public class UserCountService {
+
+    private final WebClientUtils webClientUtils;
+    private final KeycloakUris keycloakUris;
+    @Getter
+    private final CountStrategy strategy;
+    private final AsyncCache<String, Integer> totals;
+
+    public UserCountService(WebClientUtils webClientUtils,
+                            KeycloakUris keycloakUris,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.search.count-strategy:EXACT}") CountStrategy strategy,
+                            @Value("${app.search.count-cache-ttl:30s}") Duration cacheTtl) {
+        this.webClientUtils = webClientUtils;
+        this.keycloakUris = keycloakUris;
+        this.strategy = strategy;
+        this.totals = Caffeine.newBuilder()
+                .expireAfterWrite(cacheTtl)
+                .maximumSize(10_000)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, totals, "keycloak.users.count");
+        log.info("Estratégia de contagem de usuários: {}", strategy);
+    }
+
+    /**
+     * Retorna o total de usuários que atendem à busca, ou vazio quando a estratégia é {@link CountStrategy#NONE}.
+     */
+    public Mono<Optional<Integer>> count(String token, String search) {
+        return switch (strategy) {
+            case EXACT -> fetchCount(token, search).map(Optional::of);
+            case CACHED -> Mono.fromFuture(() -> totals.get(cacheKey(search),
+                            (key, executor) -> fetchCount(token, search).toFuture()), true)
+                    .map(Optional::of);
+            case NONE -> Mono.just(Optional.empty());
+        };
+    }
+
+    public void invalidateAll() {
+        totals.synchronous().invalidateAll();
+    }
+
+    private Mono<Integer> fetchCount(String token, String search) {
+        boolean filtered = search != null && !search.isBlank();
+        Map<String, Object> queryParams = filtered ? Map.of("search", search) : Map.of();
+        return webClientUtils.createGetRequest(token, KeycloakCall.COUNT_USERS, keycloakUris.usersCount(queryParams))
+                .retrieve()
+                .bodyToMono(Integer.class)
+                .onErrorResume(DecodingException.class, e -> {
+                    log.error("Erro ao converter contagem de usuários: {}", e.getMessage());
+                    return Mono.just(0); // Retorna 0 caso a conversão falhe
+                })
+                .doOnNext(total -> log.debug("Total de usuários no Keycloak: {}", total));
+    }
+
+    private static String cacheKey(String search) {
+        // A busca do Keycloak não diferencia maiúsculas de minúsculas
+        return search == null ? "" : search.trim().toLowerCase(Locale.ROOT);
+    }
+}
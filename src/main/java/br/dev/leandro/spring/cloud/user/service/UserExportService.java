@@ -0,0 +1,72 @@
+package br.dev.leandro.spring.cloud.user.service;
+
+import br.dev.leandro.spring.cloud.user.dto.UserDto;
+import br.dev.leandro.spring.cloud.user.resilience.KeycloakOperation;
+import br.dev.leandro.spring.cloud.user.keycloak.KeycloakCall;
+import br.dev.leandro.spring.cloud.user.keycloak.KeycloakUris;
+import br.dev.leandro.spring.cloud.user.utils.WebClientUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exportação de todos os usuários do realm. Percorre {@code /admin/realms/{realm}/users} página a página,
+ * buscando a próxima página enquanto a atual é consumida. Como as páginas só são solicitadas conforme o
+ * cliente lê a resposta, no máximo duas páginas ficam em memória independentemente do tamanho do realm.
+ */
+@Slf4j
+@Service
+public class UserExportService {
+
+    private static final int PAGES_IN_FLIGHT = 2;
+
+    private final WebClientUtils webClientUtils;
+    private final KeycloakUris keycloakUris;
+    private final int pageSize;
+
+    public UserExportService(WebClientUtils webClientUtils,
+                             KeycloakUris keycloakUris,
+                             @Value("${app.export.page-size:500}") int pageSize) {
+        this.webClientUtils = webClientUtils;
+        this.keycloakUris = keycloakUris;
+        this.pageSize = pageSize;
+    }
+
+    public Flux<UserDto> exportUsers(String search) {
+        return Flux.<Integer, Integer>generate(() -> 0, (first, sink) -> {
+                    sink.next(first);
+                    return first + pageSize;
+                })
+                .flatMapSequential(first -> fetchPage(search, first), PAGES_IN_FLIGHT, 1)
+                .takeUntil(page -> page.size() < pageSize)
+                .concatMapIterable(page -> page)
+                .doOnComplete(() -> log.info("Exportação de usuários finalizada"));
+    }
+
+    private Mono<List<UserDto>> fetchPage(String search, int first) {
+        Map<String, Object> queryParams = new LinkedHashMap<>();
+        queryParams.put("briefRepresentation", true);
+        queryParams.put("first", first);
+        queryParams.put("max", pageSize);
+        if (search != null && !search.isBlank()) {
+            queryParams.put("search", search);
+        }
+        URI uri = keycloakUris.users(queryParams);
+        return webClientUtils.withAdminToken(KeycloakOperation.LIST_USERS, token -> webClientUtils.createGetRequest(token, KeycloakCall.LIST_USERS, uri)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, response -> {
+                    log.error("Erro ao exportar página de usuários a partir de {}: {}", first, response.statusCode());
+                    return response.createException().flatMap(Mono::error);
+                })
+                .bodyToFlux(UserDto.class)
+                .collectList());
+    }
+}
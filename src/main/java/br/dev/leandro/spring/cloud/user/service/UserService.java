@@ -1,29 +1,51 @@
 package br.dev.leandro.spring.cloud.user.service;
 
+import br.dev.leandro.spring.cloud.user.cache.UserCacheInvalidator;
+import br.dev.leandro.spring.cloud.user.cache.UserLookupCache;
 import br.dev.leandro.spring.cloud.user.dto.OrganizerCreateDto;
 import br.dev.leandro.spring.cloud.user.dto.UserDto;
 import br.dev.leandro.spring.cloud.user.dto.UserUpdateDto;
+import br.dev.leandro.spring.cloud.user.exception.AdminCredentialsException;
 import br.dev.leandro.spring.cloud.user.exception.AssignRoleException;
+import br.dev.leandro.spring.cloud.user.exception.InvalidTokenException;
 import br.dev.leandro.spring.cloud.user.exception.ResourceNotFoundException;
 import br.dev.leandro.spring.cloud.user.exception.handler.WebClientErrorHandler;
+import br.dev.leandro.spring.cloud.user.index.UserIndex;
+import br.dev.leandro.spring.cloud.user.index.UserIndexService;
+import br.dev.leandro.spring.cloud.user.index.UserProjection;
+import br.dev.leandro.spring.cloud.user.keycloak.KeycloakCall;
+import br.dev.leandro.spring.cloud.user.keycloak.KeycloakRole;
+import br.dev.leandro.spring.cloud.user.keycloak.KeycloakUris;
+import br.dev.leandro.spring.cloud.user.keycloak.RoleCache;
+import br.dev.leandro.spring.cloud.user.outbox.OrganizerOutbox;
+import br.dev.leandro.spring.cloud.user.resilience.KeycloakOperation;
 import br.dev.leandro.spring.cloud.user.utils.WebClientUtils;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.context.config.annotation.RefreshScope;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 import reactor.netty.http.client.PrematureCloseException;
 
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
+import java.net.URI;
 import java.util.*;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static br.dev.leandro.spring.cloud.user.config.OperationClientRequestObservationConvention.OPERATION_ATTRIBUTE;
 
 @Slf4j
 @RefreshScope
@@ -33,41 +55,73 @@ public class UserService {
 
     public static final String ERRO_INESPERADO_AO_ADICIONAR_USUARIO = "Erro inesperado ao adicionar usuário";
     public static final String ERRO_INESPERADO_AO_ATUALIZAR_USUARIO = "Erro inesperado ao atualizar usuário";
-    private static final String ADMIN_REALMS_REALM_USERS = "/admin/realms/{realm}/users";
+    private static final int DEFAULT_PAGE_SIZE = 10;
     private final WebClientUtils webClientUtils;
+    private final KeycloakUris keycloakUris;
+    private final RoleCache roleCache;
+    private final UserCountService userCountService;
+    private final UserLookupCache userLookupCache;
+    private final UserCacheInvalidator userCacheInvalidator;
+    private final UserIndexService userIndexService;
+    private final OrganizerOutbox organizerOutbox;
     private final WebClient eventClient;
+    private final MeterRegistry meterRegistry;
 
     @Value("${event.url}")
     private String eventUrl;
     @Value("${event.organizer-path}")
     private String organizerPath;
-
-    public UserService(WebClientUtils webClientUtils, @Qualifier("eventWebClient") WebClient eventClient) {
+    @Value("${app.user-update.diff:true}")
+    private boolean diffUpdates;
+
+    public UserService(WebClientUtils webClientUtils,
+                       KeycloakUris keycloakUris,
+                       RoleCache roleCache,
+                       UserCountService userCountService,
+                       UserLookupCache userLookupCache,
+                       UserCacheInvalidator userCacheInvalidator,
+                       UserIndexService userIndexService,
+                       OrganizerOutbox organizerOutbox,
+                       @Qualifier("eventWebClient") WebClient eventClient,
+                       MeterRegistry meterRegistry) {
         this.webClientUtils = webClientUtils;
+        this.keycloakUris = keycloakUris;
+        this.roleCache = roleCache;
+        this.userCountService = userCountService;
+        this.userLookupCache = userLookupCache;
+        this.userCacheInvalidator = userCacheInvalidator;
+        this.userIndexService = userIndexService;
+        this.organizerOutbox = organizerOutbox;
         this.eventClient = eventClient;
+        this.meterRegistry = meterRegistry;
     }
 
+    /**
+     * Cria o usuário como um grafo de etapas, cada uma iniciada assim que as suas entradas existem:
+     * a busca do id da role corre junto com a criação no Keycloak, e a atribuição da role parte quando
+     * os dois ids existem. O cadastro do organizer vem por último, só depois da role atribuída, porque
+     * é a única etapa que não pode ser desfeita (o serviço de eventos não tem exclusão de organizer).
+     * Se a busca ou a atribuição da role falhar depois da criação, o usuário é excluído do Keycloak
+     * para não ficar sem role. Uma falha no cadastro do organizer não exclui o usuário, que já está
+     * completo no Keycloak e pode ter sido cadastrado mesmo assim (timeout); o erro é propagado.
+     * <p>
+     * Cada etapa é medida em {@code user.create.steps} (tags {@code step} e {@code outcome}).
+     */
     public Mono<Void> createUser(UserDto userDto) {
-        return webClientUtils.getAdminAccessToken()
-                .flatMap(token -> {
-                    log.info("Token JWT obtido com sucesso: {}", token);
-                    Map<String, Object> user = buildUserPayload(userDto);
-                    return webClientUtils.createPostRequest(token, ADMIN_REALMS_REALM_USERS, user, null)
-                            .exchangeToMono(response -> {
-                                if (response.statusCode().is2xxSuccessful()) {
-                                    String location = response.headers().asHttpHeaders().getFirst("Location");
-                                    log.info("Header Location: {}", location);
-                                    if (location != null) {
-                                        String userId = location.substring(location.lastIndexOf("/") + 1);
-                                        log.info("User ID extraído: {}", userId);
-                                        return assignRoleToUser(userId, userDto.role())
-                                                .then(registerOrganizer(userId, userDto));
-                                    }
-                                    return Mono.error(new RuntimeException("Header Location não encontrado"));
-                                }
-                                return WebClientErrorHandler.handleErrorStatus(response);
-                            });
+        return Mono.defer(() -> {
+                    // Em cache para a compensação reaproveitar o id; cancelar o zip não cancela a criação em andamento
+                    Mono<String> userId = timed("create-user", createKeycloakUser(userDto)).cache();
+                    Mono<String> roleId = timed("resolve-role", resolveRoleId(userDto.role()));
+
+                    return Mono.zip(userId, roleId)
+                            .flatMap(ids -> timed("assign-role", assignRole(ids.getT1(), ids.getT2(), userDto.role())))
+                            // Se a criação falhou, o erro dela é o que importa; senão, desfaz a criação
+                            .onErrorResume(error -> userId.flatMap(id -> compensate(id, error)))
+                            // Fora da compensação: o organizer pode existir mesmo com erro na resposta
+                            .then(userId)
+                            .flatMap(id -> timed("register-organizer", registerOrganizer(id, userDto)));
                 })
+                .transform(workflow -> timed("workflow", workflow))
                 .onErrorResume(e -> {
                     if (e instanceof ResourceNotFoundException || e instanceof AuthenticationException) {
                         return Mono.error(e); // Propaga exceções conhecidas sem encapsulá-las novamente
@@ -78,6 +132,53 @@ public class UserService {
 
     }
 
+    private Mono<String> createKeycloakUser(UserDto userDto) {
+        return webClientUtils.withAdminToken(KeycloakOperation.CREATE_USER, token -> {
+            Map<String, Object> user = buildUserPayload(userDto);
+            return webClientUtils.createPostRequest(token, KeycloakCall.CREATE_USER, keycloakUris.users(), user)
+                    .exchangeToMono(response -> {
+                        if (response.statusCode().is2xxSuccessful()) {
+                            String location = response.headers().asHttpHeaders().getFirst("Location");
+                            if (location != null) {
+                                String userId = location.substring(location.lastIndexOf("/") + 1);
+                                log.debug("Usuário criado no Keycloak com ID: {}", userId);
+                                return Mono.just(userId);
+                            }
+                            return Mono.error(new RuntimeException("Header Location não encontrado"));
+                        }
+                        return WebClientErrorHandler.handleErrorStatus(response);
+                    });
+        });
+    }
+
+    /**
+     * Exclui o usuário criado e devolve o erro da etapa que falhou. Uma falha na exclusão é registrada
+     * e anexada ao erro original.
+     */
+    private Mono<Void> compensate(String userId, Throwable error) {
+        log.warn("Criação do usuário {} falhou depois do cadastro no Keycloak, excluindo o usuário: {}",
+                userId, error.getMessage());
+        return timed("compensate", deleteUser(userId))
+                .onErrorResume(deleteError -> {
+                    log.error("Não foi possível excluir o usuário {} após falha na criação", userId, deleteError);
+                    error.addSuppressed(deleteError);
+                    return Mono.empty();
+                })
+                .then(Mono.error(error));
+    }
+
+    private <T> Mono<T> timed(String step, Mono<T> mono) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return mono.doFinally(signal -> sample.stop(meterRegistry.timer("user.create.steps",
+                    "step", step, "outcome", switch (signal) {
+                        case ON_ERROR -> "error";
+                        case CANCEL -> "cancelled";
+                        default -> "success";
+                    })));
+        });
+    }
+
     private Mono<Void> registerOrganizer(String userId, UserDto userDto) {
         if (!"ORGANIZADOR".equalsIgnoreCase(userDto.role())) {
             return Mono.empty();
@@ -91,8 +192,14 @@ public class UserService {
                 userDto.documentNumber()
         );
 
+        if (organizerOutbox.isEnabled()) {
+            // Entregue em background; a criação não depende da disponibilidade do serviço de eventos
+            return organizerOutbox.enqueue(organizer);
+        }
+
         return eventClient.post()
                 .uri(organizerPath)
+                .attribute(OPERATION_ATTRIBUTE, OrganizerOutbox.REGISTER_ORGANIZER)
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(organizer)
                 .retrieve()
@@ -105,21 +212,21 @@ public class UserService {
     }
 
 
+    /**
+     * Atualiza o usuário. Com {@code app.user-update.diff} habilitado, compara a atualização com a
+     * representação atual (lida do Keycloak, sem passar pelo cache de usuários) e envia apenas os campos alterados; sem
+     * alterações o PUT não é feito. A senha é redefinida apenas quando informada.
+     */
     public Mono<Void> updateUser(String id, UserUpdateDto userUpdateDto) {
-        return webClientUtils.getAdminAccessToken()
-                .flatMap(token -> {
-                    Map<String, Object> payload = buildUpdateUserPayload(userUpdateDto);
-
-                    return webClientUtils.createPutRequest(token, ADMIN_REALMS_REALM_USERS + "/{id}", payload, Map.of("id", id))
-                            .exchangeToMono(response -> {
-                                if (response.statusCode().is2xxSuccessful()) {
-                                    return response.bodyToMono(Void.class)
-                                            .then(handlePasswordUpdate(userUpdateDto.password(), id, token));
-                                }
-                                // Em caso de erro, usa o tratamento centralizado
-                                return WebClientErrorHandler.handleErrorStatus(response);
-                            });
-                })
+        Mono<Map<String, Object>> payload = diffUpdates
+                ? currentUser(id).map(current -> buildUpdateUserPayload(userUpdateDto, current))
+                : Mono.fromSupplier(() -> buildUpdateUserPayload(userUpdateDto));
+
+        return payload.flatMap(changes -> webClientUtils.withAdminToken(KeycloakOperation.UPDATE_USER, token ->
+                        updateProfile(id, changes, token)
+                                .then(userUpdateDto.password()
+                                        .map(password -> setUserPassword(id, password, token))
+                                        .orElseGet(Mono::empty))))
                 .onErrorResume(e -> {
                     if (e instanceof ResourceNotFoundException || e instanceof AuthenticationException) {
                         return Mono.error(e); // Propaga exceções conhecidas sem encapsulá-las novamente
@@ -130,80 +237,122 @@ public class UserService {
 
     }
 
+    private Mono<UserDto> currentUser(String id) {
+        return userLookupCache.getFresh(id, this::fetchUserById)
+                .onErrorMap(WebClientResponseException.NotFound.class,
+                        e -> new ResourceNotFoundException("Usuário não encontrado."));
+    }
+
+    private Mono<Void> updateProfile(String id, Map<String, Object> changes, String token) {
+        if (changes.isEmpty()) {
+            log.debug("Usuário {} sem alterações de perfil, PUT no Keycloak não enviado", id);
+            return Mono.empty();
+        }
+        return webClientUtils.createPutRequest(token, KeycloakCall.UPDATE_USER, keycloakUris.user(id), changes)
+                .exchangeToMono(response -> {
+                    if (response.statusCode().is2xxSuccessful()) {
+                        return response.bodyToMono(Void.class);
+                    }
+                    // Em caso de erro, usa o tratamento centralizado
+                    return WebClientErrorHandler.handleErrorStatus(response);
+                })
+                .doFinally(signal -> userCacheInvalidator.invalidate(id));
+    }
+
+    /**
+     * Exclui o usuário. Uma tentativa que falhou por timeout ou erro transitório pode ter excluído o
+     * usuário mesmo assim; o 404 das tentativas seguintes conta então como sucesso.
+     */
     public Mono<Void> deleteUser(String id) {
-        return webClientUtils.getAdminAccessToken()
-                .flatMap(token ->
-                        webClientUtils.createDeleteRequest(token, ADMIN_REALMS_REALM_USERS + "/{id}", Map.of("id", id))
+        return Mono.defer(() -> {
+                    AtomicBoolean mayHaveDeleted = new AtomicBoolean();
+                    return webClientUtils.withAdminToken(KeycloakOperation.DELETE_USER, token -> {
+                        boolean retried = mayHaveDeleted.get();
+                        return webClientUtils.createDeleteRequest(token, KeycloakCall.DELETE_USER, keycloakUris.user(id))
                                 .exchangeToMono(response -> {
                                     if (response.statusCode().is2xxSuccessful()) {
                                         return Mono.empty();
                                     }
+                                    if (retried && response.statusCode() == HttpStatus.NOT_FOUND) {
+                                        log.info("Usuário {} já excluído pela tentativa anterior", id);
+                                        return response.releaseBody();
+                                    }
                                     return WebClientErrorHandler.handleErrorStatus(response).then();
                                 })
-                ).onErrorResume(e -> {
+                                // O 401 é repetido com outro token sem ter excluído nada
+                                .doOnError(e -> !(e instanceof InvalidTokenException), e -> mayHaveDeleted.set(true))
+                                .doOnCancel(() -> mayHaveDeleted.set(true));
+                    });
+                }).onErrorResume(e -> {
                     log.error("Erro ao excluir o user: {}", id, e);
                     return Mono.error(e);
-                });
+                })
+                .doFinally(signal -> userCacheInvalidator.invalidate(id));
     }
 
     public Mono<Void> assignRoleToUser(String userId, String roleName) {
-        log.info("Iniciando assignRoleToUser para User ID: {}, Role: {}", userId, roleName);
-        Map<String, Object> uriVariables = Map.of("userId", userId);
-        return webClientUtils.getAdminAccessToken()
-                .flatMap(token ->
-                        // Buscar roles
-                        webClientUtils.createGetRequest(token, "/admin/realms/{realm}/roles")
-                                .retrieve()
-                                .onStatus(HttpStatusCode::isError, response -> {
-                                    log.error("Erro ao buscar roles: {}", response.statusCode());
-                                    return response.createException().flatMap(Mono::error);
-                                })
-                                .bodyToFlux(Map.class)
-                                .filter(role -> role.get("name").equals(roleName))
-                                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Role não encontrada: " + roleName)))
-                                .single()
-                                .flatMap(role -> {
-                                    String roleId = (String) role.get("id");
-                                    log.info("Role ID encontrado: {}", roleId);
-
-                                    // Atribuir role ao usuário
-                                    return webClientUtils.createPostRequest(token,
-                                                    ADMIN_REALMS_REALM_USERS + "/{userId}/role-mappings/realm",
-                                                    Collections.singletonList(Map.of("id", roleId, "name", roleName)),
-                                                    uriVariables)
-                                            .exchangeToMono(response -> {
-                                                if (response.statusCode().is2xxSuccessful()) {
-                                                    return response.bodyToMono(Void.class);
-                                                }
-                                                return WebClientErrorHandler.handleErrorStatus(response);
-                                            }).onErrorResume(e -> {
-                                                // 1) Logue o erro
-                                                log.error("Falha ao atribuir role '{}' ao usuário {}: {}", roleName, userId, e.getMessage());
-                                                // 2) Retorne um Mono que propaga uma exceção específica
-                                                return Mono.error(new AssignRoleException(
-                                                        "Não foi possível atribuir o papel '" + roleName + "' ao usuário. Tente novamente mais tarde."
-                                                ));
-                                            }).onErrorMap(IllegalStateException.class, ex -> {
-                                                if (ex.getMessage().contains("completed without emitting a response")) {
-                                                    return new RuntimeException("Erro de comunicação com serviço de eventos. Verifique se o token foi enviado.");
-                                                }
-                                                return ex;
-                                            })
-                                            ;
+        return resolveRoleId(roleName)
+                .flatMap(roleId -> assignRole(userId, roleId, roleName));
+    }
+
+    /**
+     * Id da role (cache local com fallback para o Keycloak).
+     */
+    private Mono<String> resolveRoleId(String roleName) {
+        return roleCache.getRoleId(roleName);
+    }
+
+    private Mono<Void> assignRole(String userId, String roleId, String roleName) {
+        log.debug("Atribuindo role {} ao usuário {}", roleName, userId);
+        return webClientUtils.withAdminToken(KeycloakOperation.ASSIGN_ROLE, token ->
+                        webClientUtils.createPostRequest(token, KeycloakCall.ASSIGN_ROLE,
+                                        keycloakUris.userRoleMappings(userId),
+                                        List.of(new KeycloakRole(roleId, roleName)))
+                                .exchangeToMono(response -> {
+                                    if (response.statusCode().is2xxSuccessful()) {
+                                        return response.bodyToMono(Void.class);
+                                    }
+                                    return WebClientErrorHandler.handleErrorStatus(response);
                                 })
                 )
+                // Fora do withAdminToken: a renovação do token no 401 e o circuit breaker precisam ver o erro original
+                .onErrorResume(e -> !isRejectedByResilience(e), e -> {
+                    // 1) Logue o erro
+                    log.error("Falha ao atribuir role '{}' ao usuário {}: {}", roleName, userId, e.getMessage());
+                    // 2) Retorne um Mono que propaga uma exceção específica
+                    return Mono.error(new AssignRoleException(
+                            "Não foi possível atribuir o papel '" + roleName + "' ao usuário. Tente novamente mais tarde."
+                    ));
+                }).onErrorMap(IllegalStateException.class, ex -> {
+                    if (ex.getMessage().contains("completed without emitting a response")) {
+                        return new RuntimeException("Erro de comunicação com serviço de eventos. Verifique se o token foi enviado.");
+                    }
+                    return ex;
+                })
                 .onErrorResume(e -> {
                     if (e instanceof ResourceNotFoundException || e instanceof AuthenticationException) {
                         return Mono.error(e); // Propaga exceções conhecidas sem encapsulá-las novamente
                     }
                     log.error(ERRO_INESPERADO_AO_ATUALIZAR_USUARIO, e);
                     return Mono.error(e); // Propaga a exceção original sem adicionar prefixos adicionais
-                });
+                })
+                .doOnSuccess(v -> userCacheInvalidator.invalidate(userId));
+
+    }
 
+    /**
+     * Erros da própria camada de resiliência ou do token do serviço, que têm tratamento próprio e não
+     * indicam uma falha da atribuição em si.
+     */
+    private static boolean isRejectedByResilience(Throwable error) {
+        return error instanceof CallNotPermittedException
+                || error instanceof BulkheadFullException
+                || error instanceof TimeoutException
+                || error instanceof AdminCredentialsException;
     }
 
     @NotNull
-    private static Map<String, Object> buildUserPayload(UserDto userDto) {
+    static Map<String, Object> buildUserPayload(UserDto userDto) {
         return Map.of(
                 "username", userDto.username(),
                 "email", userDto.email(),
@@ -217,45 +366,60 @@ public class UserService {
                 )));
     }
 
-    private Mono<Void> handlePasswordUpdate(Optional<String> passwordOpt, String id, String token) {
-        return passwordOpt.map(password -> setUserPassword(id, password, token))
-                .orElseGet(() -> {
-                    log.warn("Password não informado para o Usuário com ID: {}", id);
-                    return Mono.error(new IllegalArgumentException(
-                            "Senha não informada para o usuário com ID: " + id));
-
-                }).onErrorResume(e -> {
-                    log.error(ERRO_INESPERADO_AO_ATUALIZAR_USUARIO, e);
-                    return Mono.error(e);
-                });
-    }
-
     @NotNull
-    private static Map<String, Object> buildUpdateUserPayload(UserUpdateDto userUpdateDto) {
+    static Map<String, Object> buildUpdateUserPayload(UserUpdateDto userUpdateDto) {
         Map<String, Object> payload = new HashMap<>();
         payload.put("username", userUpdateDto.username());
         userUpdateDto.email().ifPresent(email -> payload.put("email", email));
         userUpdateDto.firstName().ifPresent(firstName -> payload.put("firstName", firstName));
         userUpdateDto.lastName().ifPresent(lastName -> payload.put("lastName", lastName));
-        userUpdateDto.password().ifPresent(password -> payload.put("password", password));
+        return payload;
+    }
+
+    /**
+     * Campos de perfil que diferem de {@code current}, com o username que identifica a representação;
+     * vazio se nada mudou. O Keycloak guarda username e e-mail em minúsculas, então a comparação deles
+     * ignora maiúsculas.
+     */
+    @NotNull
+    static Map<String, Object> buildUpdateUserPayload(UserUpdateDto userUpdateDto, UserDto current) {
+        Map<String, Object> payload = new HashMap<>();
+        if (!userUpdateDto.username().equalsIgnoreCase(Objects.requireNonNullElse(current.username(), ""))) {
+            payload.put("username", userUpdateDto.username());
+        }
+        userUpdateDto.email()
+                .filter(email -> !email.equalsIgnoreCase(Objects.requireNonNullElse(current.email(), "")))
+                .ifPresent(email -> payload.put("email", email));
+        userUpdateDto.firstName()
+                .filter(firstName -> !firstName.equals(current.firstName()))
+                .ifPresent(firstName -> payload.put("firstName", firstName));
+        userUpdateDto.lastName()
+                .filter(lastName -> !lastName.equals(current.lastName()))
+                .ifPresent(lastName -> payload.put("lastName", lastName));
+        if (!payload.isEmpty()) {
+            payload.putIfAbsent("username", userUpdateDto.username());
+        }
         return payload;
     }
 
     private Mono<Void> setUserPassword(String id, String password, String token) {
-        return webClientUtils.createPutRequest(token,
-                        ADMIN_REALMS_REALM_USERS + "/{id}/reset-password",
+        return webClientUtils.createPutRequest(token, KeycloakCall.RESET_PASSWORD,
+                        keycloakUris.userResetPassword(id),
                         Map.of(
                                 "type", "password",
                                 "value", password,
                                 "temporary", false
-                        ), Map.of("id", id))
+                        ))
                 .retrieve()
                 .bodyToMono(Void.class);
     }
 
     public Mono<UserDto> findUserById(String id) {
-        return webClientUtils.getAdminAccessToken()
-                .flatMap(token -> webClientUtils.createGetRequest(token, ADMIN_REALMS_REALM_USERS + "/{id}", Map.of("id", id))
+        return userLookupCache.get(id, this::fetchUserById);
+    }
+
+    private Mono<UserDto> fetchUserById(String id) {
+        return webClientUtils.withAdminToken(KeycloakOperation.GET_USER, token -> webClientUtils.createGetRequest(token, KeycloakCall.GET_USER, keycloakUris.user(id))
                         .retrieve()
                         .onStatus(HttpStatusCode::isError, response -> {
                             log.error("Erro ao buscar o usuário por ID: {}", id);
@@ -269,56 +433,54 @@ public class UserService {
     }
 
     public Mono<Map<String, Object>> findAllUsers(String search, Integer first, Integer max) {
-        Map<String, Object> queryParams = new HashMap<>();
-        if (!search.isEmpty()) {
-            queryParams.put("search", search); // Certifica-se de usar "search"
-        }
-        if (first != null) {
-            queryParams.put("first", first);
+        int offset = first != null && first > 0 ? first : 0;
+        int pageSize = max != null && max > 0 ? max : DEFAULT_PAGE_SIZE;
+        if (userIndexService.isReady()) {
+            return Mono.fromSupplier(() -> findAllUsersFromIndex(search, offset, pageSize));
         }
-        if (max != null) {
-            queryParams.put("max", max);
+        boolean cursorMode = userCountService.getStrategy() == CountStrategy.NONE;
+
+        Map<String, Object> queryParams = new LinkedHashMap<>();
+        // Sem atributos e permissões de cada usuário, que não são lidos pelo UserDto
+        queryParams.put("briefRepresentation", true);
+        queryParams.put("first", offset);
+        // Sem contagem, busca um item a mais apenas para saber se existe próxima página
+        queryParams.put("max", cursorMode ? pageSize + 1 : pageSize);
+        if (search != null && !search.isBlank()) {
+            queryParams.put("search", search);
         }
 
-        log.info("Enviando requisição ao Keycloak com parâmetros: {}", queryParams);
-        long startTime = System.currentTimeMillis();
-
-        return webClientUtils.getAdminAccessToken()
-                .flatMap(token -> {
-                    String finalUrl = ADMIN_REALMS_REALM_USERS + "?search=" + URLEncoder.encode(search, StandardCharsets.UTF_8);
-
-                    log.info("Chamando Keycloak: {} com parâmetros: {}", finalUrl, queryParams);
+        URI uri = keycloakUris.users(queryParams);
 
-                    Mono<List<UserDto>> usersMono = webClientUtils.createGetRequest(token, finalUrl, queryParams)
+        return webClientUtils.withAdminToken(KeycloakOperation.LIST_USERS, token -> {
+                    Mono<List<UserDto>> usersMono = webClientUtils.createGetRequest(token, KeycloakCall.LIST_USERS, uri)
                             .retrieve()
                             .bodyToFlux(UserDto.class)
                             .collectList()
-                            .doOnNext(users -> log.info("Usuários retornados do Keycloak: {}", users));
+                            .doOnNext(users -> log.debug("Keycloak retornou {} usuários para {}", users.size(), uri));
 
-                    Mono<Integer> countMono = webClientUtils.createGetRequest(token, ADMIN_REALMS_REALM_USERS + "/count")
-                            .retrieve()
-                            .bodyToMono(String.class) // Obtém a resposta como String
-                            .map(body -> {
-                                try {
-                                    return Integer.parseInt(body.trim()); // Converte para Integer manualmente
-                                } catch (NumberFormatException e) {
-                                    log.error("Erro ao converter contagem de usuários: {}", body);
-                                    return 0; // Retorna 0 caso a conversão falhe
-                                }
-                            })
-                            .doOnNext(total -> log.info("Total de usuários no Keycloak: {}", total));
-
-
-                    return Mono.zip(usersMono, countMono)
+                    return Mono.zip(usersMono, userCountService.count(token, search))
                             .map(tuple -> {
+                                List<UserDto> users = tuple.getT1();
                                 Map<String, Object> result = new HashMap<>();
-                                result.put("total", tuple.getT2());
-                                result.put("users", tuple.getT1());
-                                result.put("page", first / max + 1);
-                                result.put("pageSize", max);
-                                long duration = System.currentTimeMillis() - startTime;
-                                log.info("Tempo de resposta do Keycloak: {}ms", duration);
-                                log.info("Resposta final enviada ao cliente: {}", result);
+                                boolean hasNext;
+                                if (tuple.getT2().isPresent()) {
+                                    int total = tuple.getT2().get();
+                                    result.put("total", total);
+                                    hasNext = offset + users.size() < total;
+                                } else {
+                                    hasNext = users.size() > pageSize;
+                                    if (hasNext) {
+                                        users = users.subList(0, pageSize);
+                                    }
+                                }
+                                result.put("users", users);
+                                result.put("hasNext", hasNext);
+                                result.put("page", offset / pageSize + 1);
+                                result.put("pageSize", pageSize);
+                                if (log.isTraceEnabled()) {
+                                    log.trace("Página de usuários enviada ao cliente: {}", result);
+                                }
                                 return result;
                             });
                 }).onErrorResume(e -> {
@@ -326,4 +488,19 @@ public class UserService {
                     return Mono.error(e);
                 });
     }
-}
\ No newline at end of file
+
+    /**
+     * Página da listagem a partir do índice local, sempre com o total exato.
+     */
+    private Map<String, Object> findAllUsersFromIndex(String search, int offset, int pageSize) {
+        UserIndex.Page page = userIndexService.search(search, offset, pageSize);
+        List<UserDto> users = page.users().stream().map(UserProjection::toUserDto).toList();
+        Map<String, Object> result = new HashMap<>();
+        result.put("users", users);
+        result.put("total", page.total());
+        result.put("hasNext", offset + users.size() < page.total());
+        result.put("page", offset / pageSize + 1);
+        result.put("pageSize", pageSize);
+        return result;
+    }
+}
@@ -1,23 +1,23 @@
 package br.dev.leandro.spring.cloud.user.utils;
 
-import br.dev.leandro.spring.cloud.user.keycloak.KeycloakProperties;
+import br.dev.leandro.spring.cloud.user.exception.InvalidTokenException;
+import br.dev.leandro.spring.cloud.user.keycloak.KeycloakCall;
+import br.dev.leandro.spring.cloud.user.keycloak.AdminTokenProvider;
+import br.dev.leandro.spring.cloud.user.resilience.KeycloakOperation;
+import br.dev.leandro.spring.cloud.user.resilience.KeycloakResilience;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.core.AuthenticationException;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.net.URI;
+import java.util.function.Function;
+
+import static br.dev.leandro.spring.cloud.user.config.OperationClientRequestObservationConvention.OPERATION_ATTRIBUTE;
 
 @Log4j2
 @Component
@@ -27,92 +27,70 @@ public class WebClientUtils {
     public static final String BEARER = "Bearer ";
 
     private final WebClient webClient;
-    private final String realm;
-    private final String clientId;
-    private final String clientSecret;
+    private final AdminTokenProvider adminTokenProvider;
+    private final KeycloakResilience keycloakResilience;
 
     @Autowired
-    public WebClientUtils(@Qualifier("keycloakWebClient") WebClient webClient, KeycloakProperties keycloakProperties) {
+    public WebClientUtils(@Qualifier("keycloakWebClient") WebClient webClient,
+                          AdminTokenProvider adminTokenProvider,
+                          KeycloakResilience keycloakResilience) {
         this.webClient = webClient;
-        this.realm = keycloakProperties.getRealm();
-        this.clientId = keycloakProperties.getClientId();
-        this.clientSecret = keycloakProperties.getClientSecret();
+        this.adminTokenProvider = adminTokenProvider;
+        this.keycloakResilience = keycloakResilience;
     }
 
-    public WebClient.RequestHeadersSpec<?> createPostRequest(String token, String uriTemplate, Object body, Map<String, Object> uriVariables) {
-        var uri = buildUri(uriTemplate, uriVariables);
+    public WebClient.RequestHeadersSpec<?> createPostRequest(String token, KeycloakCall call, URI uri, Object body) {
         return webClient.post()
                 .uri(uri)
+                .attribute(OPERATION_ATTRIBUTE, call.getTag())
                 .header(AUTHORIZATION, BEARER + token)
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(body);
     }
 
-    public WebClient.RequestHeadersSpec<?> createPutRequest(String token, String uriTemplate, Object body, Map<String, Object> uriVariables) {
-        var uri = buildUri(uriTemplate, uriVariables);
+    public WebClient.RequestHeadersSpec<?> createPutRequest(String token, KeycloakCall call, URI uri, Object body) {
         return webClient.put()
                 .uri(uri)
+                .attribute(OPERATION_ATTRIBUTE, call.getTag())
                 .header(AUTHORIZATION, BEARER + token)
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(body);
     }
 
-    private String buildUri(String uriTemplate, Map<String, Object> uriVariables) {
-        Map<String, Object> vars = new HashMap<>();
-        vars.put("realm", this.realm);
-        if (uriVariables != null) {
-            vars.putAll(uriVariables);
-        }
-        String uri = UriComponentsBuilder.fromUriString(uriTemplate)
-                .buildAndExpand(vars)
-                .toString();
-        log.info("URI construída: {}", uri);
-        return uri;
-    }
-
-    public WebClient.RequestHeadersSpec<?> createGetRequest(String token, String uriTemplate) {
-        var uri = buildUri(uriTemplate, null);
+    public WebClient.RequestHeadersSpec<?> createGetRequest(String token, KeycloakCall call, URI uri) {
         return webClient.get()
                 .uri(uri)
+                .attribute(OPERATION_ATTRIBUTE, call.getTag())
                 .header(AUTHORIZATION, BEARER + token);
     }
 
-    public WebClient.RequestHeadersSpec<?> createGetRequest(String token, String uriTemplate, Map<String, Object> id) {
-        var uri = buildUri(uriTemplate, id);
-        return webClient.get().uri(uri)
-                .header(AUTHORIZATION, BEARER + token);
-    }
-
-    public WebClient.RequestHeadersSpec<?> createDeleteRequest(String token, String uriTemplate, Map<String, Object> uriVariables) {
-        var uri = buildUri(uriTemplate, uriVariables);
+    public WebClient.RequestHeadersSpec<?> createDeleteRequest(String token, KeycloakCall call, URI uri) {
         return webClient.delete()
                 .uri(uri)
+                .attribute(OPERATION_ATTRIBUTE, call.getTag())
                 .header(AUTHORIZATION, BEARER + token);
+    }
 
+    public Mono<String> getAdminAccessToken() {
+        return adminTokenProvider.getToken();
     }
 
+    /**
+     * Executa uma chamada administrativa com o token em cache. Se o Keycloak responder 401
+     * (token revogado ou expirado antes do previsto), renova o token e repete a chamada uma vez.
+     * A chamada passa pelo circuit breaker da operação e pelo bulkhead das chamadas administrativas.
+     */
+    public <T> Mono<T> withAdminToken(KeycloakOperation operation, Function<String, Mono<T>> call) {
+        return keycloakResilience.execute(operation, adminTokenProvider.getToken()
+                .flatMap(token -> call.apply(token)
+                        .onErrorResume(WebClientUtils::isUnauthorized, error -> {
+                            log.warn("Token administrativo rejeitado pelo Keycloak, renovando e repetindo a chamada");
+                            adminTokenProvider.invalidate(token);
+                            return adminTokenProvider.getToken().flatMap(call);
+                        })));
+    }
 
-    public Mono<String> getAdminAccessToken() {
-        var uri = buildUri("/realms/{realm}/protocol/openid-connect/token", null);
-        return webClient.post()
-                .uri(uri)
-                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
-                .body(BodyInserters.fromFormData("grant_type", "client_credentials")
-                        .with("client_id", clientId)
-                        .with("client_secret", clientSecret))
-                .retrieve()
-                .onStatus(HttpStatusCode::is4xxClientError, response -> {
-                    if (response.statusCode() == HttpStatus.UNAUTHORIZED) {
-                        return Mono.error(new BadCredentialsException("Token inválido ou expirado."));
-                    }
-                    return response.createException().flatMap(Mono::error);
-                })
-                .onStatus(HttpStatusCode::is5xxServerError, response ->
-                        Mono.error(new RuntimeException("Erro interno ao obter o token.")))
-                .bodyToMono(new ParameterizedTypeReference<Map<String, String>>() {}) // Mapeia para Map
-                .map(response -> response.get("access_token"))
-                .doOnSuccess(token -> System.out.println("Token recebido: " + token))
-                .doOnError(error -> System.err.println("Erro ao obter token: " + error.getMessage()));
+    private static boolean isUnauthorized(Throwable error) {
+        return error instanceof InvalidTokenException || error instanceof WebClientResponseException.Unauthorized;
     }
 }
-
@@ -0,0 +1,132 @@
+package br.dev.leandro.spring.cloud.user.cache.integration;
+
+import br.dev.leandro.spring.cloud.user.cache.UserCacheInvalidator;
+import br.dev.leandro.spring.cloud.user.config.KeycloakMockSupport;
+import br.dev.leandro.spring.cloud.user.config.WebClientTestConfig;
+import br.dev.leandro.spring.cloud.user.dto.UserUpdateDto;
+import br.dev.leandro.spring.cloud.user.service.UserService;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.InputDestination;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Invalidação do cache de usuários entre réplicas, usando o binder em memória do Spring Cloud Stream
+ * no lugar do RabbitMQ.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.cloud.config.enabled=false",
+                "spring.cloud.stream.default-binder=integration",
+                "spring.cloud.stream.output-bindings=springCloudBusOutput",
+                "app.user-cache.ttl=1m"},
+        classes = {WebClientTestConfig.class})
+@Import(TestChannelBinderConfiguration.class)
+class UserCacheBusIT extends KeycloakMockSupport {
+
+    private static final String BUS_DESTINATION = "springCloudBus";
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserCacheInvalidator userCacheInvalidator;
+    @Autowired
+    private InputDestination input;
+    @Autowired
+    private OutputDestination output;
+
+    @BeforeEach
+    void setUp() {
+        // Assina o destino do bus e descarta mensagens de testes anteriores
+        while (output.receive(100, BUS_DESTINATION) != null) {
+            output.clear();
+        }
+
+        wireMockServer.stubFor(get(urlPathEqualTo("/admin/realms/mocked-realm/users/123456"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"id\": \"123456\", \"username\": \"testuser\"}")));
+    }
+
+    @Test
+    void invalidate_ShouldPublishEventOnBus() {
+        userCacheInvalidator.invalidate("123456");
+
+        Message<byte[]> message = output.receive(5000, BUS_DESTINATION);
+        assertNotNull(message);
+        String payload = new String(message.getPayload(), StandardCharsets.UTF_8);
+        assertTrue(payload.contains("UserCacheInvalidationEvent"));
+        assertTrue(payload.contains("\"userId\":\"123456\""));
+    }
+
+    @Test
+    void remoteInvalidation_ShouldEvictLocalEntry() {
+        StepVerifier.create(userService.findUserById("123456").then(userService.findUserById("123456")))
+                .expectNextCount(1)
+                .verifyComplete();
+        verify(1, getRequestedFor(urlPathEqualTo("/admin/realms/mocked-realm/users/123456")));
+
+        input.send(MessageBuilder.withPayload("""
+                        {
+                            "type": "UserCacheInvalidationEvent",
+                            "timestamp": 1700000000000,
+                            "originService": "spring-user:outra-replica",
+                            "destinationService": "**",
+                            "id": "c0ffee00-0000-0000-0000-000000000001",
+                            "userId": "123456"
+                        }
+                        """.getBytes(StandardCharsets.UTF_8))
+                .setHeader("contentType", "application/json")
+                .build(), BUS_DESTINATION);
+
+        StepVerifier.create(userService.findUserById("123456"))
+                .expectNextCount(1)
+                .verifyComplete();
+        verify(2, getRequestedFor(urlPathEqualTo("/admin/realms/mocked-realm/users/123456")));
+    }
+
+    @Test
+    void updateUser_ShouldDiffAgainstKeycloakInsteadOfCachedUser() {
+        stubUser("Maria");
+        StepVerifier.create(userService.findUserById("123456"))
+                .expectNextCount(1)
+                .verifyComplete();
+        // Alterado direto no Keycloak: o cache ainda guarda "Maria"
+        stubUser("Mariana");
+        wireMockServer.stubFor(put(urlPathEqualTo("/admin/realms/mocked-realm/users/123456"))
+                .willReturn(aResponse().withStatus(204)));
+
+        UserUpdateDto updateDto = new UserUpdateDto("testuser", Optional.empty(), Optional.of("Maria"),
+                Optional.empty(), Optional.empty());
+        StepVerifier.create(userService.updateUser("123456", updateDto))
+                .verifyComplete();
+
+        verify(2, getRequestedFor(urlPathEqualTo("/admin/realms/mocked-realm/users/123456")));
+        verify(putRequestedFor(urlPathEqualTo("/admin/realms/mocked-realm/users/123456"))
+                .withRequestBody(equalToJson("{\"username\":\"testuser\",\"firstName\":\"Maria\"}")));
+    }
+
+    private void stubUser(String firstName) {
+        wireMockServer.stubFor(get(urlPathEqualTo("/admin/realms/mocked-realm/users/123456"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"id\": \"123456\", \"username\": \"testuser\", \"firstName\": \"" + firstName + "\"}")));
+    }
+}
@@ -0,0 +1,76 @@
+package br.dev.leandro.spring.cloud.user.config;
+
+import br.dev.leandro.spring.cloud.user.cache.UserLookupCache;
+import br.dev.leandro.spring.cloud.user.keycloak.AdminTokenProvider;
+import br.dev.leandro.spring.cloud.user.keycloak.RoleCache;
+import br.dev.leandro.spring.cloud.user.resilience.KeycloakResilience;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+
+/**
+ * Base dos testes de integração com o Keycloak simulado pelo WireMock: sobe o servidor por classe,
+ * aponta {@code spring.keycloak.admin.auth-server-url} para ele e, antes de cada teste, limpa os stubs
+ * e os caches que guardariam respostas de testes anteriores, deixando o token {@code mocked-token}
+ * configurado.
+ * <p>
+ * Como cada classe tem o próprio servidor, o contexto é descartado ao fim da classe para que outra
+ * classe com a mesma configuração não reaproveite um contexto apontando para uma porta antiga.
+ */
+@DirtiesContext
+public abstract class KeycloakMockSupport {
+
+    protected static final String TOKEN_PATH = "/realms/mocked-realm/protocol/openid-connect/token";
+
+    protected static WireMockServer wireMockServer;
+
+    @Autowired
+    protected AdminTokenProvider adminTokenProvider;
+    @Autowired
+    protected RoleCache roleCache;
+    @Autowired
+    protected UserLookupCache userLookupCache;
+    @Autowired
+    protected KeycloakResilience keycloakResilience;
+
+    @BeforeAll
+    static void startWireMockServer() {
+        wireMockServer = new WireMockServer(wireMockConfig().dynamicPort());
+        wireMockServer.start();
+        WireMock.configureFor("localhost", wireMockServer.port());
+    }
+
+    @DynamicPropertySource
+    static void keycloakProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.keycloak.admin.auth-server-url", wireMockServer::baseUrl);
+    }
+
+    @AfterAll
+    static void stopWireMockServer() {
+        wireMockServer.stop();
+    }
+
+    @BeforeEach
+    protected void resetKeycloakMock() {
+        wireMockServer.resetAll();
+        adminTokenProvider.invalidate();
+        roleCache.invalidateAll();
+        userLookupCache.invalidateAll();
+        keycloakResilience.reset();
+
+        wireMockServer.stubFor(post(urlPathEqualTo(TOKEN_PATH))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"access_token\":\"mocked-token\",\"expires_in\":3600}")));
+    }
+}
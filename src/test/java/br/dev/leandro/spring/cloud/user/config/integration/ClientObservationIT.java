@@ -0,0 +1,72 @@
+package br.dev.leandro.spring.cloud.user.config.integration;
+
+import br.dev.leandro.spring.cloud.user.config.KeycloakMockSupport;
+import br.dev.leandro.spring.cloud.user.config.WebClientTestConfig;
+import br.dev.leandro.spring.cloud.user.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Timers das chamadas ao Keycloak, tagueados pela operação lógica e não pela URI.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.cloud.config.enabled=false",
+                "app.resilience.retry.max-retries=0"},
+        classes = {WebClientTestConfig.class})
+class ClientObservationIT extends KeycloakMockSupport {
+
+    private static final String USERS_PATH = "/admin/realms/mocked-realm/users";
+    private static final String KEYCLOAK_TIMER = "keycloak.client.requests";
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void findUserById_ShouldRecordTokenAndLookupTimers() {
+        wireMockServer.stubFor(get(urlPathEqualTo(USERS_PATH + "/observado"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"id\": \"observado\", \"username\": \"testuser\"}")));
+
+        StepVerifier.create(userService.findUserById("observado"))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        Timer lookup = meterRegistry.find(KEYCLOAK_TIMER)
+                .tags("operation", "get-user", "status.class", "2xx", "outcome", "SUCCESS")
+                .timer();
+        assertNotNull(lookup);
+        assertTrue(lookup.count() >= 1);
+        assertNotNull(meterRegistry.find(KEYCLOAK_TIMER).tags("operation", "token", "status.class", "2xx").timer());
+    }
+
+    @Test
+    void findUserById_ShouldTagServerErrors() {
+        wireMockServer.stubFor(get(urlPathEqualTo(USERS_PATH + "/indisponivel"))
+                .willReturn(aResponse().withStatus(503)));
+
+        StepVerifier.create(userService.findUserById("indisponivel"))
+                .expectError()
+                .verify();
+
+        Timer failures = meterRegistry.find(KEYCLOAK_TIMER)
+                .tags("operation", "get-user", "status.class", "5xx", "outcome", "SERVER_ERROR")
+                .timer();
+        assertNotNull(failures);
+        assertTrue(failures.count() >= 1);
+    }
+}
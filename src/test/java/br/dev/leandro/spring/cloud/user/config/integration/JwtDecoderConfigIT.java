@@ -0,0 +1,137 @@
+package br.dev.leandro.spring.cloud.user.config.integration;
+
+import br.dev.leandro.spring.cloud.user.config.JwtDecoderConfig;
+import br.dev.leandro.spring.cloud.user.keycloak.JwkSetProperties;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.OAuth2ResourceServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Decoder dos JWTs montado por {@link JwtDecoderConfig} (fora do perfil {@code test}) com o JWK set
+ * servido pelo WireMock: issuer, algoritmos aceitos e busca das chaves na partida.
+ */
+class JwtDecoderConfigIT {
+
+    private static final String CERTS_PATH = "/realms/mocked-realm/protocol/openid-connect/certs";
+    private static final String ISSUER = "http://keycloak.local/realms/mocked-realm";
+
+    private static WireMockServer wireMockServer;
+    private static RSAKey key;
+
+    private ApplicationContextRunner contextRunner;
+
+    @BeforeAll
+    static void setUpWireMockServer() throws JOSEException {
+        wireMockServer = new WireMockServer(wireMockConfig().dynamicPort());
+        wireMockServer.start();
+        key = new RSAKeyGenerator(2048).keyID("chave-atual").generate();
+        wireMockServer.stubFor(get(urlPathEqualTo(CERTS_PATH))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody(new JWKSet(key.toPublicJWK()).toString())));
+    }
+
+    @AfterAll
+    static void tearDownWireMockServer() {
+        wireMockServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        contextRunner = new ApplicationContextRunner()
+                .withUserConfiguration(Dependencies.class, JwtDecoderConfig.class)
+                .withPropertyValues(
+                        // O failsafe ativa o perfil "test", em que a configuração não é carregada
+                        "spring.profiles.active=default",
+                        "spring.security.oauth2.resourceserver.jwt.jwk-set-uri=" + wireMockServer.baseUrl() + CERTS_PATH,
+                        "spring.security.oauth2.resourceserver.jwt.issuer-uri=" + ISSUER,
+                        "spring.security.oauth2.resourceserver.jwt.jws-algorithms=RS512");
+    }
+
+    @Test
+    void jwtDecoder_ShouldLoadKeysOnStartupAndAcceptTokenFromIssuer() {
+        contextRunner.run(context -> {
+            MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+            await().atMost(Duration.ofSeconds(5)).until(() ->
+                    meterRegistry.find("jwt.jwk-set.refreshes").tag("trigger", "startup").counter() != null);
+            wireMockServer.verify(getRequestedFor(urlPathEqualTo(CERTS_PATH)));
+
+            StepVerifier.create(context.getBean(ReactiveJwtDecoder.class).decode(sign(JWSAlgorithm.RS512, ISSUER)))
+                    .expectNextCount(1)
+                    .verifyComplete();
+        });
+    }
+
+    @Test
+    void jwtDecoder_ShouldRejectTokenFromAnotherIssuer() {
+        contextRunner.run(context -> StepVerifier.create(context.getBean(ReactiveJwtDecoder.class)
+                        .decode(sign(JWSAlgorithm.RS512, "http://outro.local/realms/mocked-realm")))
+                .expectError(JwtValidationException.class)
+                .verify());
+    }
+
+    @Test
+    void jwtDecoder_ShouldRejectAlgorithmNotConfigured() {
+        contextRunner.run(context -> StepVerifier.create(context.getBean(ReactiveJwtDecoder.class)
+                        .decode(sign(JWSAlgorithm.RS256, ISSUER)))
+                .expectError(JwtException.class)
+                .verify());
+    }
+
+    private static String sign(JWSAlgorithm algorithm, String issuer) throws JOSEException {
+        SignedJWT jwt = new SignedJWT(
+                new JWSHeader.Builder(algorithm).keyID(key.getKeyID()).build(),
+                new JWTClaimsSet.Builder()
+                        .subject("3f1c2a9e-5b7d-4e8f-9a0b-1c2d3e4f5a6b")
+                        .issuer(issuer)
+                        .issueTime(new Date())
+                        .expirationTime(Date.from(Instant.now().plusSeconds(300)))
+                        .build());
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+
+    @Configuration
+    @EnableConfigurationProperties({OAuth2ResourceServerProperties.class, JwkSetProperties.class})
+    static class Dependencies {
+
+        @Bean
+        WebClient keycloakWebClient() {
+            return WebClient.create();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package br.dev.leandro.spring.cloud.user.controller.integration;
+
+import br.dev.leandro.spring.cloud.user.config.WebClientTestConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Endpoints públicos atendidos pelo servidor Netty de verdade, para que o perfil {@code blockhound}
+ * enxergue o event loop.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.cloud.config.enabled=false",
+                "app.hello.delay=50ms"},
+        classes = {WebClientTestConfig.class, UserControllerIT.PublicEndpointsSecurity.class})
+class UserControllerIT {
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + port)
+                .build();
+    }
+
+    @Test
+    void hello_ShouldRespondWithoutBlockingAndRecordObservation() {
+        client.get().uri("/users/public/hello")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Hello from spring-user!");
+
+        assertNotNull(meterRegistry.find("hello-span").timer());
+    }
+
+    /**
+     * O SecurityConfig não roda no perfil de teste; libera os endpoints públicos como em produção.
+     */
+    @TestConfiguration
+    static class PublicEndpointsSecurity {
+
+        @Bean
+        SecurityWebFilterChain publicEndpoints(ServerHttpSecurity http) {
+            return http
+                    .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                    .authorizeExchange(auth -> auth
+                            .pathMatchers("/users/public/**").permitAll()
+                            .anyExchange().denyAll())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package br.dev.leandro.spring.cloud.user.converter.integration;
+
+import br.dev.leandro.spring.cloud.user.config.WebClientTestConfig;
+import br.dev.leandro.spring.cloud.user.converter.CustomJwtAuthenticationConverter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cache das authorities por token e compartilhamento das listas entre tokens com as mesmas roles.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.cloud.config.enabled=false"},
+        classes = {WebClientTestConfig.class})
+class CustomJwtAuthenticationConverterIT {
+
+    @Autowired
+    private CustomJwtAuthenticationConverter converter;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void convert_ShouldReuseAuthoritiesForSameToken() {
+        Jwt jwt = token(UUID.randomUUID().toString(), Instant.now().plusSeconds(300), List.of("admin"));
+        double hits = cacheGets("hit");
+
+        Collection<GrantedAuthority> first = converter.convert(jwt);
+        Collection<GrantedAuthority> second = converter.convert(jwt);
+
+        assertEquals(List.of("ROLE_ADMIN"), first.stream().map(GrantedAuthority::getAuthority).toList());
+        assertSame(first, second);
+        assertEquals(hits + 1, cacheGets("hit"));
+    }
+
+    @Test
+    void convert_ShouldShareAuthoritiesBetweenTokensWithSameRoles() {
+        Instant expiresAt = Instant.now().plusSeconds(300);
+        Collection<GrantedAuthority> first = converter.convert(token(UUID.randomUUID().toString(), expiresAt, List.of("organizador", "participante")));
+        Collection<GrantedAuthority> second = converter.convert(token(UUID.randomUUID().toString(), expiresAt, List.of("organizador", "participante")));
+
+        assertSame(first, second);
+        assertThrows(UnsupportedOperationException.class, () -> first.clear());
+    }
+
+    @Test
+    void convert_ShouldNotServeCachedAuthoritiesAfterTokenExpires() {
+        String jti = UUID.randomUUID().toString();
+        Instant expiresAt = Instant.now().plusSeconds(1);
+        converter.convert(token(jti, expiresAt, List.of("admin")));
+
+        // Dentro da validade, o mesmo jti é servido do cache mesmo com outras roles
+        assertEquals(List.of("ROLE_ADMIN"), converter.convert(token(jti, expiresAt, List.of("participante")))
+                .stream().map(GrantedAuthority::getAuthority).toList());
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> Instant.now().isAfter(expiresAt));
+        Collection<GrantedAuthority> authorities = converter.convert(token(jti, expiresAt, List.of("participante")));
+
+        assertEquals(List.of("ROLE_PARTICIPANTE"), authorities.stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    @Test
+    void convert_ShouldNotCacheExpiredToken() {
+        String jti = UUID.randomUUID().toString();
+        converter.convert(token(jti, Instant.now().minusSeconds(1), List.of("admin")));
+        double hits = cacheGets("hit");
+
+        Collection<GrantedAuthority> authorities = converter.convert(token(jti, Instant.now().minusSeconds(1), List.of("participante")));
+
+        assertEquals(List.of("ROLE_PARTICIPANTE"), authorities.stream().map(GrantedAuthority::getAuthority).toList());
+        assertEquals(hits, cacheGets("hit"));
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets").tags("cache", "jwt.authorities", "result", result).functionCounter().count();
+    }
+
+    private static Jwt token(String jti, Instant expiresAt, List<String> roles) {
+        return Jwt.withTokenValue("token-" + jti)
+                .header("alg", "RS256")
+                .jti(jti)
+                .subject("3f1c2a9e-5b7d-4e8f-9a0b-1c2d3e4f5a6b")
+                .issuedAt(expiresAt.minusSeconds(300))
+                .expiresAt(expiresAt)
+                .claim("resource_access", Map.of("user-service", Map.of("roles", roles)))
+                .build();
+    }
+}
@@ -0,0 +1,163 @@
+package br.dev.leandro.spring.cloud.user.exception.handler.integration;
+
+import br.dev.leandro.spring.cloud.user.config.KeycloakMockSupport;
+import br.dev.leandro.spring.cloud.user.config.WebClientTestConfig;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.*;
+
+/**
+ * Respostas de erro dos endpoints em {@code application/problem+json}.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.cloud.config.enabled=false",
+                "app.resilience.retry.max-retries=0",
+                "app.resilience.attempt-timeout=500ms"},
+        classes = {WebClientTestConfig.class})
+class GlobalExceptionHandlerIT extends KeycloakMockSupport {
+
+    private static final String USERS_PATH = "/admin/realms/mocked-realm/users";
+
+    @Autowired
+    private ApplicationContext context;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToApplicationContext(context)
+                .apply(springSecurity())
+                .configureClient()
+                .build()
+                .mutateWith(mockJwt())
+                .mutateWith(csrf());
+    }
+
+    @Test
+    void getUserById_ShouldReturnProblemWhenKeycloakReturnsNotFound() {
+        wireMockServer.stubFor(get(urlPathEqualTo(USERS_PATH + "/inexistente"))
+                .willReturn(aResponse().withStatus(404)));
+
+        client.get().uri("/users/admin/inexistente")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404)
+                .jsonPath("$.instance").isEqualTo("/users/admin/inexistente")
+                .jsonPath("$.timestamp").exists();
+    }
+
+    @Test
+    void getUserById_ShouldReturnBadGatewayWhenKeycloakFails() {
+        wireMockServer.stubFor(get(urlPathEqualTo(USERS_PATH + "/falha"))
+                .willReturn(aResponse().withStatus(500).withBody("stack trace interno do Keycloak")));
+
+        client.get().uri("/users/admin/falha")
+                .exchange()
+                .expectStatus().isEqualTo(502)
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(502)
+                .jsonPath("$.detail").isEqualTo("Serviço de identidade indisponível, tente novamente mais tarde.");
+    }
+
+    @Test
+    void getUserById_ShouldReturnBadGatewayWhenKeycloakDeniesAccess() {
+        wireMockServer.stubFor(get(urlPathEqualTo(USERS_PATH + "/protegido"))
+                .willReturn(aResponse().withStatus(403)));
+
+        client.get().uri("/users/admin/protegido")
+                .exchange()
+                .expectStatus().isEqualTo(502)
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(502)
+                .jsonPath("$.detail").isEqualTo("Operação não permitida ao serviço pelo Keycloak.")
+                .jsonPath("$.instance").isEqualTo("/users/admin/protegido");
+    }
+
+    @Test
+    void getUserById_ShouldReturnGatewayTimeoutWhenKeycloakDoesNotAnswer() {
+        wireMockServer.stubFor(get(urlPathEqualTo(USERS_PATH + "/lento"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(2000)));
+
+        client.get().uri("/users/admin/lento")
+                .exchange()
+                .expectStatus().isEqualTo(504)
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.detail").isEqualTo("Serviço de identidade indisponível, tente novamente mais tarde.");
+    }
+
+    @Test
+    void updateUser_ShouldReturnFieldErrorsWhenBodyIsInvalid() {
+        client.put().uri("/users/admin/qualquer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"email\": \"nao-e-email\"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.errors.email").exists()
+                .jsonPath("$.instance").isEqualTo("/users/admin/qualquer");
+
+        wireMockServer.verify(0, putRequestedFor(urlPathEqualTo(USERS_PATH + "/qualquer")));
+    }
+
+    @Test
+    void deleteUser_ShouldReturnProblemWhenUserDoesNotExist() {
+        wireMockServer.stubFor(WireMock.delete(urlPathEqualTo(USERS_PATH + "/removido"))
+                .willReturn(aResponse().withStatus(404)));
+
+        client.delete().uri("/users/admin/removido")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404);
+    }
+
+    @Test
+    void deleteUser_ShouldReturnBadGatewayWhenKeycloakDeniesAccess() {
+        wireMockServer.stubFor(WireMock.delete(urlPathEqualTo(USERS_PATH + "/protegido"))
+                .willReturn(aResponse().withStatus(403)));
+
+        client.delete().uri("/users/admin/protegido")
+                .exchange()
+                .expectStatus().isEqualTo(502)
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(502)
+                .jsonPath("$.detail").isEqualTo("Operação não permitida ao serviço pelo Keycloak.")
+                .jsonPath("$.instance").isEqualTo("/users/admin/protegido");
+    }
+
+    @Test
+    void getUserById_ShouldReturnBadGatewayWhenKeycloakRejectsServiceCredentials() {
+        wireMockServer.stubFor(post(urlPathEqualTo(TOKEN_PATH))
+                .willReturn(aResponse().withStatus(401)));
+
+        client.get().uri("/users/admin/qualquer")
+                .exchange()
+                .expectStatus().isEqualTo(502)
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(502)
+                .jsonPath("$.detail").isEqualTo("Credenciais do serviço rejeitadas pelo Keycloak.")
+                .jsonPath("$.instance").isEqualTo("/users/admin/qualquer");
+
+        wireMockServer.verify(0, getRequestedFor(urlPathEqualTo(USERS_PATH + "/qualquer")));
+    }
+}
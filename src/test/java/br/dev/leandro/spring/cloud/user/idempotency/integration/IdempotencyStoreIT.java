@@ -0,0 +1,159 @@
+package br.dev.leandro.spring.cloud.user.idempotency.integration;
+
+import br.dev.leandro.spring.cloud.user.config.KeycloakMockSupport;
+import br.dev.leandro.spring.cloud.user.config.WebClientTestConfig;
+import br.dev.leandro.spring.cloud.user.idempotency.IdempotencyStore;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.*;
+
+/**
+ * Criação e atualização de usuários com {@code Idempotency-Key}: repetições aguardam ou reaproveitam
+ * a primeira execução em vez de chamar o Keycloak de novo.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.cloud.config.enabled=false",
+                "app.resilience.retry.max-retries=0"},
+        classes = {WebClientTestConfig.class})
+class IdempotencyStoreIT extends KeycloakMockSupport {
+
+    private static final String USERS_PATH = "/admin/realms/mocked-realm/users";
+    private static final String USER_JSON = """
+            {"username":"maria","email":"maria@example.com","firstName":"Maria","lastName":"Silva",
+             "password":"segredo","role":"PARTICIPANTE","organizationName":"Org","contactPhone":"11999999999",
+             "documentNumber":"12345678900"}
+            """;
+
+    @Autowired
+    private ApplicationContext context;
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToApplicationContext(context)
+                .apply(springSecurity())
+                .configureClient()
+                .build()
+                .mutateWith(mockJwt())
+                .mutateWith(csrf());
+
+        wireMockServer.stubFor(post(urlPathEqualTo(USERS_PATH))
+                .willReturn(aResponse().withStatus(201).withHeader("Location", USERS_PATH + "/u1")));
+        wireMockServer.stubFor(get(urlPathEqualTo("/admin/realms/mocked-realm/roles/PARTICIPANTE"))
+                .willReturn(okJson("{\"id\":\"r1\",\"name\":\"PARTICIPANTE\"}")));
+        wireMockServer.stubFor(post(urlPathEqualTo(USERS_PATH + "/u1/role-mappings/realm"))
+                .willReturn(aResponse().withStatus(204)));
+    }
+
+    @Test
+    void createUser_ShouldReplayResponseForRepeatedKey() {
+        String key = UUID.randomUUID().toString();
+
+        create(key, USER_JSON)
+                .expectStatus().isCreated()
+                .expectHeader().doesNotExist(IdempotencyStore.IDEMPOTENT_REPLAYED);
+        create(key, USER_JSON)
+                .expectStatus().isCreated()
+                .expectHeader().valueEquals(IdempotencyStore.IDEMPOTENT_REPLAYED, "true")
+                .expectBody(String.class).isEqualTo("Usuário criado com sucesso.");
+
+        wireMockServer.verify(1, postRequestedFor(urlPathEqualTo(USERS_PATH)));
+        wireMockServer.verify(1, postRequestedFor(urlPathEqualTo(USERS_PATH + "/u1/role-mappings/realm")));
+    }
+
+    @Test
+    void createUser_ShouldRejectKeyReusedWithAnotherBody() {
+        String key = UUID.randomUUID().toString();
+        create(key, USER_JSON).expectStatus().isCreated();
+
+        create(key, USER_JSON.replace("Maria", "Mariana"))
+                .expectStatus().isEqualTo(422)
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON);
+
+        wireMockServer.verify(1, postRequestedFor(urlPathEqualTo(USERS_PATH)));
+    }
+
+    @Test
+    void createUser_ShouldRejectKeyTooLong() {
+        create("k".repeat(256), USER_JSON)
+                .expectStatus().isBadRequest()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.detail").isEqualTo("Header Idempotency-Key deve ter entre 1 e 255 caracteres.");
+
+        wireMockServer.verify(0, postRequestedFor(urlPathEqualTo(USERS_PATH)));
+    }
+
+    @Test
+    void createUser_ShouldExecuteAgainAfterFailure() {
+        String key = UUID.randomUUID().toString();
+        wireMockServer.stubFor(post(urlPathEqualTo(USERS_PATH)).inScenario("falha")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(500))
+                .willSetStateTo("recuperado"));
+        wireMockServer.stubFor(post(urlPathEqualTo(USERS_PATH)).inScenario("falha")
+                .whenScenarioStateIs("recuperado")
+                .willReturn(aResponse().withStatus(201).withHeader("Location", USERS_PATH + "/u1")));
+
+        create(key, USER_JSON).expectStatus().is5xxServerError();
+        create(key, USER_JSON)
+                .expectStatus().isCreated()
+                .expectHeader().doesNotExist(IdempotencyStore.IDEMPOTENT_REPLAYED);
+
+        wireMockServer.verify(2, postRequestedFor(urlPathEqualTo(USERS_PATH)));
+    }
+
+    @Test
+    void execute_ShouldAttachConcurrentDuplicatesToInFlightExecution() {
+        AtomicInteger executions = new AtomicInteger();
+        String key = UUID.randomUUID().toString();
+        Mono<ResponseEntity<String>> first = idempotencyStore.execute(key, "create-user", null, "corpo",
+                () -> Mono.delay(Duration.ofMillis(200))
+                        .doOnSubscribe(s -> executions.incrementAndGet())
+                        .thenReturn(ResponseEntity.ok("ok")));
+        Mono<ResponseEntity<String>> second = idempotencyStore.execute(key, "create-user", null, "corpo",
+                () -> Mono.fromSupplier(() -> {
+                    executions.incrementAndGet();
+                    return ResponseEntity.ok("outra execução");
+                }));
+
+        StepVerifier.create(Mono.zip(first, second))
+                .assertNext(responses -> {
+                    assertEquals("ok", responses.getT1().getBody());
+                    assertEquals("ok", responses.getT2().getBody());
+                    assertEquals("true", responses.getT2().getHeaders().getFirst(IdempotencyStore.IDEMPOTENT_REPLAYED));
+                })
+                .verifyComplete();
+        assertEquals(1, executions.get());
+    }
+
+    private WebTestClient.ResponseSpec create(String key, String body) {
+        return client.post().uri("/users/admin/create")
+                .header(IdempotencyStore.IDEMPOTENCY_KEY, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .exchange();
+    }
+}
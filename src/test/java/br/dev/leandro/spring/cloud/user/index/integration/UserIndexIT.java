@@ -0,0 +1,209 @@
+package br.dev.leandro.spring.cloud.user.index.integration;
+
+import br.dev.leandro.spring.cloud.user.cache.UserCacheInvalidationEvent;
+import br.dev.leandro.spring.cloud.user.cache.UserCacheInvalidator;
+import br.dev.leandro.spring.cloud.user.config.KeycloakMockSupport;
+import br.dev.leandro.spring.cloud.user.config.WebClientTestConfig;
+import br.dev.leandro.spring.cloud.user.dto.UserDto;
+import br.dev.leandro.spring.cloud.user.index.UserIndexService;
+import br.dev.leandro.spring.cloud.user.index.UserProjection;
+import br.dev.leandro.spring.cloud.user.service.UserService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Listagem e busca de usuários a partir do índice local: sincronização com o Keycloak, semântica do
+ * parâmetro {@code search}, paginação com total exato e atualização depois das alterações.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.cloud.config.enabled=false",
+                "app.user-index.enabled=true",
+                "app.user-index.page-size=2",
+                "app.user-index.resync-interval=1h",
+                "app.user-index.snapshot.directory="},
+        classes = {WebClientTestConfig.class})
+class UserIndexIT extends KeycloakMockSupport {
+
+    private static final String USERS_PATH = "/admin/realms/mocked-realm/users";
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserIndexService userIndexService;
+    @Autowired
+    private UserCacheInvalidator userCacheInvalidator;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    @BeforeEach
+    protected void resetKeycloakMock() {
+        // A sincronização da partida pode ainda estar em andamento; aguarda o fim dela antes de trocar os stubs
+        await().atMost(Duration.ofSeconds(10)).until(() -> meterRegistry.find("user.index.syncs")
+                .tag("trigger", "startup").counters().stream().mapToDouble(Counter::count).sum() >= 1);
+        super.resetKeycloakMock();
+    }
+
+    @BeforeEach
+    void setUp() {
+        stubRoleMembers("ADMIN", "[{\"id\":\"u1\"}]");
+        stubRoleMembers("ORGANIZADOR", "[{\"id\":\"u2\"},{\"id\":\"u3\"}]");
+        wireMockServer.stubFor(get(urlPathEqualTo("/admin/realms/mocked-realm/roles/PARTICIPANTE/users"))
+                .willReturn(aResponse().withStatus(404)));
+        // Páginas além do fim, buscadas antecipadamente durante a sincronização
+        wireMockServer.stubFor(get(urlPathEqualTo(USERS_PATH)).willReturn(okJson("[]")));
+        stubUsersPage(0, """
+                [{"id":"u1","username":"maria.silva","email":"maria@example.com","firstName":"Maria","lastName":"Silva","enabled":true},
+                 {"id":"u2","username":"joao","email":"joao.marques@example.com","firstName":"João","lastName":"Marques","enabled":true}]
+                """);
+        stubUsersPage(2, """
+                [{"id":"u3","username":"ana","email":"ana@empresa.com","firstName":"Ana","lastName":"Silveira","enabled":false}]
+                """);
+    }
+
+    @Test
+    void findAllUsers_ShouldSearchIndexWithoutCallingKeycloak() {
+        userIndexService.synchronize(UserIndexService.Trigger.SCHEDULED).block();
+        wireMockServer.resetRequests();
+
+        Map<String, Object> prefix = userService.findAllUsers("MAR", 0, 10).block();
+        assertEquals(List.of("joao", "maria.silva"), usernames(prefix));
+        assertEquals(2, prefix.get("total"));
+
+        Map<String, Object> tokens = userService.findAllUsers("silv ana", 0, 10).block();
+        assertEquals(List.of("ana"), usernames(tokens));
+
+        Map<String, Object> infix = userService.findAllUsers("*empresa*", 0, 10).block();
+        assertEquals(List.of("ana"), usernames(infix));
+
+        Map<String, Object> exact = userService.findAllUsers("\"silva\"", 0, 10).block();
+        assertEquals(List.of("maria.silva"), usernames(exact));
+        assertEquals("ADMIN", users(exact).get(0).role());
+
+        wireMockServer.verify(0, getRequestedFor(urlPathMatching("/admin/realms/mocked-realm/users.*")));
+    }
+
+    @Test
+    void findAllUsers_ShouldPageByUsernameWithExactTotal() {
+        userIndexService.synchronize(UserIndexService.Trigger.SCHEDULED).block();
+
+        Map<String, Object> first = userService.findAllUsers(null, 0, 2).block();
+        assertEquals(List.of("ana", "joao"), usernames(first));
+        assertEquals(3, first.get("total"));
+        assertEquals(true, first.get("hasNext"));
+
+        Map<String, Object> second = userService.findAllUsers(null, 2, 2).block();
+        assertEquals(List.of("maria.silva"), usernames(second));
+        assertEquals(false, second.get("hasNext"));
+        assertEquals(2, second.get("page"));
+    }
+
+    @Test
+    void synchronize_ShouldApplyChangesAndRemoveDeletedUsers() {
+        userIndexService.synchronize(UserIndexService.Trigger.SCHEDULED).block();
+
+        stubUsersPage(0, """
+                [{"id":"u1","username":"maria.souza","email":"maria@example.com","firstName":"Maria","lastName":"Souza","enabled":true},
+                 {"id":"u3","username":"ana","email":"ana@empresa.com","firstName":"Ana","lastName":"Silveira","enabled":true}]
+                """);
+        stubUsersPage(2, "[]");
+        wireMockServer.stubFor(get(urlPathEqualTo(USERS_PATH + "/u2")).willReturn(aResponse().withStatus(404)));
+        userIndexService.synchronize(UserIndexService.Trigger.SCHEDULED).block();
+
+        Map<String, Object> result = userService.findAllUsers(null, 0, 10).block();
+        assertEquals(List.of("ana", "maria.souza"), usernames(result));
+        assertTrue(userIndexService.get("u3").enabled());
+        assertNull(userIndexService.get("u2"));
+    }
+
+    @Test
+    void synchronize_ShouldKeepUserMissingFromListingThatStillExists() {
+        userIndexService.synchronize(UserIndexService.Trigger.SCHEDULED).block();
+
+        // u2 some da listagem porque as páginas se deslocaram durante a varredura
+        stubUsersPage(0, """
+                [{"id":"u1","username":"maria.silva","email":"maria@example.com","firstName":"Maria","lastName":"Silva","enabled":true},
+                 {"id":"u3","username":"ana","email":"ana@empresa.com","firstName":"Ana","lastName":"Silveira","enabled":false}]
+                """);
+        stubUsersPage(2, "[]");
+        wireMockServer.stubFor(get(urlPathEqualTo(USERS_PATH + "/u2"))
+                .willReturn(okJson("{\"id\":\"u2\",\"username\":\"joao\",\"email\":\"joao.marques@example.com\",\"enabled\":true}")));
+        wireMockServer.stubFor(get(urlPathEqualTo(USERS_PATH + "/u2/role-mappings/realm"))
+                .willReturn(okJson("[{\"id\":\"r2\",\"name\":\"ORGANIZADOR\"}]")));
+        userIndexService.synchronize(UserIndexService.Trigger.SCHEDULED).block();
+
+        assertNotNull(userIndexService.get("u2"));
+        assertEquals(List.of("ORGANIZADOR"), userIndexService.get("u2").roles());
+        assertEquals(3, userService.findAllUsers(null, 0, 10).block().get("total"));
+    }
+
+    @Test
+    void deleteUser_ShouldRemoveUserFromIndex() {
+        userIndexService.synchronize(UserIndexService.Trigger.SCHEDULED).block();
+        wireMockServer.stubFor(delete(urlPathEqualTo(USERS_PATH + "/u2")).willReturn(aResponse().withStatus(204)));
+        wireMockServer.stubFor(get(urlPathEqualTo(USERS_PATH + "/u2")).willReturn(aResponse().withStatus(404)));
+        wireMockServer.stubFor(get(urlPathEqualTo(USERS_PATH + "/u2/role-mappings/realm")).willReturn(aResponse().withStatus(404)));
+
+        userService.deleteUser("u2").block();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> userIndexService.get("u2") == null);
+        assertEquals(2, userService.findAllUsers(null, 0, 10).block().get("total"));
+    }
+
+    @Test
+    void remoteInvalidation_ShouldApplyProjectionWithoutCallingKeycloak() {
+        userIndexService.synchronize(UserIndexService.Trigger.SCHEDULED).block();
+        wireMockServer.resetRequests();
+
+        UserProjection renamed = new UserProjection("u2", "joao.marques", "joao.marques@example.com", "João",
+                "Marques", true, List.of("ORGANIZADOR"));
+        userCacheInvalidator.onInvalidation(new UserCacheInvalidationEvent(this, "spring-user:outra-replica",
+                () -> "**", "u2", Optional.of(renamed)));
+        userCacheInvalidator.onInvalidation(new UserCacheInvalidationEvent(this, "spring-user:outra-replica",
+                () -> "**", "u3", Optional.empty()));
+
+        assertEquals("joao.marques", userIndexService.get("u2").username());
+        assertNull(userIndexService.get("u3"));
+        wireMockServer.verify(0, getRequestedFor(urlPathMatching("/admin/realms/mocked-realm/users.*")));
+    }
+
+    private static void stubRoleMembers(String role, String body) {
+        wireMockServer.stubFor(get(urlPathEqualTo("/admin/realms/mocked-realm/roles/" + role + "/users"))
+                .willReturn(okJson("[]")));
+        wireMockServer.stubFor(get(urlPathEqualTo("/admin/realms/mocked-realm/roles/" + role + "/users"))
+                .withQueryParam("first", equalTo("0"))
+                .willReturn(okJson(body)));
+    }
+
+    private static void stubUsersPage(int first, String body) {
+        wireMockServer.stubFor(get(urlPathEqualTo(USERS_PATH))
+                .withQueryParam("first", equalTo(String.valueOf(first)))
+                .withQueryParam("max", equalTo("2"))
+                .willReturn(okJson(body)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<UserDto> users(Map<String, Object> result) {
+        return (List<UserDto>) result.get("users");
+    }
+
+    private static List<String> usernames(Map<String, Object> result) {
+        return users(result).stream().map(UserDto::username).toList();
+    }
+}
@@ -0,0 +1,121 @@
+package br.dev.leandro.spring.cloud.user.index.integration;
+
+import br.dev.leandro.spring.cloud.user.index.UserIndex;
+import br.dev.leandro.spring.cloud.user.index.UserIndexStore;
+import br.dev.leandro.spring.cloud.user.index.UserProjection;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Persistência do índice local: recarga do snapshot e do log, compactação e recuperação de um log
+ * com o fim corrompido.
+ */
+class UserIndexStoreIT {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void load_ShouldRestoreChangesFromLog() {
+        UserIndex index = new UserIndex();
+        UserIndexStore store = new UserIndexStore(index, directory, 1000, new SimpleMeterRegistry());
+        assertTrue(store.load().isEmpty());
+        Instant synced = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        upsert(index, store, user("u1", "maria.silva", List.of("ADMIN")));
+        upsert(index, store, user("u2", "joao", List.of()));
+        index.remove("u2");
+        store.removed("u2");
+        store.synced(synced);
+        store.close();
+
+        UserIndex restored = new UserIndex();
+        Optional<Instant> lastSync = new UserIndexStore(restored, directory, 1000, new SimpleMeterRegistry()).load();
+
+        assertEquals(Optional.of(synced), lastSync);
+        assertEquals(1, restored.size());
+        assertEquals(user("u1", "maria.silva", List.of("ADMIN")), restored.get("u1"));
+    }
+
+    @Test
+    void load_ShouldRestoreSnapshotAndLogTailAfterCompaction() throws IOException {
+        UserIndex index = new UserIndex();
+        UserIndexStore store = new UserIndexStore(index, directory, 3, new SimpleMeterRegistry());
+        store.load();
+        for (int i = 0; i < 5; i++) {
+            upsert(index, store, user("u" + i, "usuario" + i, List.of("PARTICIPANTE")));
+        }
+        store.close();
+
+        assertTrue(Files.exists(directory.resolve("users.snapshot")));
+        try (var files = Files.list(directory)) {
+            assertEquals(1, files.filter(file -> file.getFileName().toString().endsWith(".log")).count());
+        }
+
+        UserIndex restored = new UserIndex();
+        new UserIndexStore(restored, directory, 3, new SimpleMeterRegistry()).load();
+        assertEquals(5, restored.size());
+        assertEquals(List.of("usuario0", "usuario1"),
+                restored.search("usuario", 0, 2).users().stream().map(UserProjection::username).toList());
+    }
+
+    @Test
+    void load_ShouldDiscardTornRecordAtEndOfLog() throws IOException {
+        UserIndex index = new UserIndex();
+        UserIndexStore store = new UserIndexStore(index, directory, 1000, new SimpleMeterRegistry());
+        store.load();
+        upsert(index, store, user("u1", "maria.silva", List.of()));
+        store.close();
+        Path log;
+        try (var files = Files.list(directory)) {
+            log = files.filter(file -> file.getFileName().toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        // Registro interrompido no meio da gravação
+        Files.write(log, new byte[]{0, 0, 0, 40, 1, 0, 0}, StandardOpenOption.APPEND);
+
+        UserIndex restored = new UserIndex();
+        UserIndexStore reopened = new UserIndexStore(restored, directory, 1000, new SimpleMeterRegistry());
+        reopened.load();
+        upsert(restored, reopened, user("u2", "joao", List.of()));
+        reopened.close();
+
+        UserIndex again = new UserIndex();
+        new UserIndexStore(again, directory, 1000, new SimpleMeterRegistry()).load();
+        assertNotNull(again.get("u1"));
+        assertNotNull(again.get("u2"));
+    }
+
+    @Test
+    void load_ShouldKeepUnrelatedFilesWhenSnapshotIsCorrupt() throws IOException {
+        Files.write(directory.resolve("users.snapshot"), new byte[]{1, 2, 3, 4});
+        Path unrelated = Files.writeString(directory.resolve("outro-servico.dat"), "dados");
+
+        UserIndex index = new UserIndex();
+        UserIndexStore store = new UserIndexStore(index, directory, 1000, new SimpleMeterRegistry());
+        assertTrue(store.load().isEmpty());
+        store.close();
+
+        assertEquals("dados", Files.readString(unrelated));
+        assertFalse(Files.exists(directory.resolve("users.snapshot")));
+    }
+
+    private static void upsert(UserIndex index, UserIndexStore store, UserProjection user) {
+        index.upsert(user);
+        store.upserted(user);
+    }
+
+    private static UserProjection user(String id, String username, List<String> roles) {
+        return new UserProjection(id, username, username + "@example.com", "Nome", null, true, roles);
+    }
+}
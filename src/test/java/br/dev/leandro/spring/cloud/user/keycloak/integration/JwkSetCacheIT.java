@@ -0,0 +1,195 @@
+package br.dev.leandro.spring.cloud.user.keycloak.integration;
+
+import br.dev.leandro.spring.cloud.user.keycloak.JwkSetCache;
+import br.dev.leandro.spring.cloud.user.keycloak.JwkSetProperties;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Date;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Validação de JWTs com o JWK set em cache: rotação de chaves, limite de renovações por
+ * {@code kid} desconhecido, Keycloak indisponível e JWK set local na partida.
+ */
+class JwkSetCacheIT {
+
+    private static final String CERTS_PATH = "/realms/mocked-realm/protocol/openid-connect/certs";
+
+    private static WireMockServer wireMockServer;
+    private static RSAKey currentKey;
+    private static RSAKey rotatedKey;
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwkSetCache jwkSetCache;
+    private NimbusReactiveJwtDecoder decoder;
+
+    @BeforeAll
+    static void setUpWireMockServer() throws JOSEException {
+        wireMockServer = new WireMockServer(wireMockConfig().dynamicPort());
+        wireMockServer.start();
+        currentKey = new RSAKeyGenerator(2048).keyID("chave-atual").generate();
+        rotatedKey = new RSAKeyGenerator(2048).keyID("chave-nova").generate();
+    }
+
+    @AfterAll
+    static void tearDownWireMockServer() {
+        wireMockServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        wireMockServer.resetAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (jwkSetCache != null) {
+            jwkSetCache.stop();
+        }
+    }
+
+    @Test
+    void decode_ShouldUseCachedKeysWithoutCallingKeycloakAgain() throws Exception {
+        stubCerts(currentKey);
+        start(properties());
+
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(decoder.decode(sign(currentKey)))
+                    .expectNextCount(1)
+                    .verifyComplete();
+        }
+
+        wireMockServer.verify(1, getRequestedFor(urlPathEqualTo(CERTS_PATH)));
+    }
+
+    @Test
+    void decode_ShouldRefreshOnceForUnknownKidAfterRotation() throws Exception {
+        stubCerts(currentKey);
+        start(properties());
+        StepVerifier.create(decoder.decode(sign(currentKey))).expectNextCount(1).verifyComplete();
+
+        stubCerts(currentKey, rotatedKey);
+        StepVerifier.create(decoder.decode(sign(rotatedKey)))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        // kid que não existe no Keycloak: a renovação já foi usada dentro do intervalo mínimo
+        RSAKey forgedKey = new RSAKeyGenerator(2048).keyID("chave-forjada").generate();
+        StepVerifier.create(decoder.decode(sign(forgedKey)))
+                .expectError(JwtException.class)
+                .verify();
+
+        wireMockServer.verify(2, getRequestedFor(urlPathEqualTo(CERTS_PATH)));
+    }
+
+    @Test
+    void decode_ShouldKeepValidatingWhenKeycloakIsDown() throws Exception {
+        stubCerts(currentKey);
+        JwkSetProperties properties = properties();
+        properties.setTtl(Duration.ofMillis(400));
+        properties.setRefreshAhead(Duration.ofMillis(100));
+        properties.setMinRefreshInterval(Duration.ofMillis(100));
+        start(properties);
+        StepVerifier.create(decoder.decode(sign(currentKey))).expectNextCount(1).verifyComplete();
+
+        wireMockServer.stubFor(get(urlPathEqualTo(CERTS_PATH)).willReturn(aResponse().withStatus(503)));
+        // Passa do ttl com as renovações em background falhando: a segunda falha sai do intervalo
+        // mínimo depois da primeira, que já sai em ttl - refresh-ahead
+        awaitRefreshes("scheduled", "failure", 2);
+
+        StepVerifier.create(decoder.decode(sign(currentKey)))
+                .expectNextCount(1)
+                .verifyComplete();
+        wireMockServer.verify(moreThanOrExactly(3), getRequestedFor(urlPathEqualTo(CERTS_PATH)));
+    }
+
+    @Test
+    void decode_ShouldUseBootstrapFileWhileKeycloakIsUnreachable(@TempDir Path directory) throws Exception {
+        wireMockServer.stubFor(get(urlPathEqualTo(CERTS_PATH)).willReturn(aResponse().withStatus(503)));
+        Path bootstrap = directory.resolve("jwks.json");
+        Files.writeString(bootstrap, new JWKSet(currentKey.toPublicJWK()).toString());
+        JwkSetProperties properties = properties();
+        properties.setBootstrapFile(bootstrap.toString());
+        start(properties);
+
+        StepVerifier.create(decoder.decode(sign(currentKey)))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    /**
+     * Inicia o cache e aguarda a busca da partida, que é feita em background.
+     */
+    private void start(JwkSetProperties properties) {
+        meterRegistry = new SimpleMeterRegistry();
+        jwkSetCache = new JwkSetCache(WebClient.create(), URI.create(wireMockServer.baseUrl() + CERTS_PATH),
+                properties, meterRegistry);
+        jwkSetCache.start();
+        decoder = NimbusReactiveJwtDecoder.withJwkSource(jwkSetCache::select).build();
+        await().atMost(Duration.ofSeconds(5)).until(() ->
+                meterRegistry.find("jwt.jwk-set.refreshes").tag("trigger", "startup").counter() != null);
+    }
+
+    private void awaitRefreshes(String trigger, String outcome, int count) {
+        await().atMost(Duration.ofSeconds(5)).until(() -> refreshes(trigger, outcome) >= count);
+    }
+
+    private double refreshes(String trigger, String outcome) {
+        Counter counter = meterRegistry.find("jwt.jwk-set.refreshes").tags("trigger", trigger, "outcome", outcome).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static JwkSetProperties properties() {
+        JwkSetProperties properties = new JwkSetProperties();
+        properties.setMinRefreshInterval(Duration.ofMinutes(1));
+        return properties;
+    }
+
+    private static void stubCerts(RSAKey... keys) {
+        JWKSet set = new JWKSet(Arrays.stream(keys).<JWK>map(RSAKey::toPublicJWK).toList());
+        wireMockServer.stubFor(get(urlPathEqualTo(CERTS_PATH))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody(set.toString())));
+    }
+
+    private static String sign(RSAKey key) throws JOSEException {
+        SignedJWT jwt = new SignedJWT(
+                new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(),
+                new JWTClaimsSet.Builder()
+                        .subject("3f1c2a9e-5b7d-4e8f-9a0b-1c2d3e4f5a6b")
+                        .issueTime(new Date())
+                        .expirationTime(Date.from(Instant.now().plusSeconds(300)))
+                        .build());
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
@@ -0,0 +1,204 @@
+package br.dev.leandro.spring.cloud.user.outbox.integration;
+
+import br.dev.leandro.spring.cloud.user.config.KeycloakMockSupport;
+import br.dev.leandro.spring.cloud.user.config.WebClientTestConfig;
+import br.dev.leandro.spring.cloud.user.dto.OrganizerCreateDto;
+import br.dev.leandro.spring.cloud.user.dto.UserDto;
+import br.dev.leandro.spring.cloud.user.exception.AssignRoleException;
+import br.dev.leandro.spring.cloud.user.outbox.OrganizerOutbox;
+import br.dev.leandro.spring.cloud.user.service.UserService;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.FileSystemUtils;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cadastro de organizador pelo outbox: a criação responde sem aguardar o serviço de eventos,
+ * que recebe o cadastro em background, com novas tentativas.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.cloud.config.enabled=false",
+                "app.organizer.delivery=OUTBOX",
+                "app.organizer.outbox.poll-interval=100ms",
+                "app.organizer.outbox.min-backoff=100ms",
+                "app.organizer.outbox.max-backoff=200ms"},
+        classes = {WebClientTestConfig.class})
+class OrganizerOutboxIT extends KeycloakMockSupport {
+
+    private static final String ORGANIZERS_PATH = "/events/organizers";
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private OrganizerOutbox organizerOutbox;
+
+    private static Path outboxDirectory;
+
+    @BeforeAll
+    static void setUpOutboxDirectory() throws IOException {
+        outboxDirectory = Files.createTempDirectory("organizer-outbox");
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("event.url", wireMockServer::baseUrl);
+        registry.add("app.organizer.outbox.directory", outboxDirectory::toString);
+    }
+
+    @AfterAll
+    static void tearDownOutboxDirectory() throws IOException {
+        FileSystemUtils.deleteRecursively(outboxDirectory);
+    }
+
+    @Test
+    void createUser_ShouldNotWaitForEventService() {
+        wireMockServer.stubFor(post(urlEqualTo("/admin/realms/mocked-realm/users"))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.CREATED.value())
+                        .withHeader(HttpHeaders.LOCATION, "/admin/realms/mocked-realm/users/org-1")));
+        wireMockServer.stubFor(get(urlPathEqualTo("/admin/realms/mocked-realm/roles/ORGANIZADOR"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"id\": \"role-org\", \"name\": \"ORGANIZADOR\"}")));
+        wireMockServer.stubFor(post(urlEqualTo("/admin/realms/mocked-realm/users/org-1/role-mappings/realm"))
+                .willReturn(aResponse().withStatus(HttpStatus.NO_CONTENT.value())));
+        wireMockServer.stubFor(post(urlPathEqualTo(ORGANIZERS_PATH))
+                .willReturn(aResponse().withStatus(HttpStatus.CREATED.value()).withFixedDelay(3000)));
+
+        UserDto organizer = new UserDto("org_user", "org@example.com", "Org", "User", "password123",
+                "ORGANIZADOR", "Teste Organização", "11 3333-3333", "1122334455-45");
+
+        StepVerifier.create(userService.createUser(organizer))
+                .verifyComplete();
+        Instant created = Instant.now();
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> {
+            verify(postRequestedFor(urlPathEqualTo(ORGANIZERS_PATH))
+                    .withHeader("Idempotency-Key", equalTo("organizer-org-1"))
+                    .withRequestBody(matchingJsonPath("$.userId", equalTo("org-1"))));
+            assertFalse(Files.exists(outboxDirectory.resolve("org-1.json")));
+        });
+        // A criação terminou antes de o serviço de eventos poder responder (3s de delay)
+        Instant registrationRequested = wireMockServer.findAll(postRequestedFor(urlPathEqualTo(ORGANIZERS_PATH)))
+                .get(0).getLoggedDate().toInstant();
+        assertTrue(created.isBefore(registrationRequested.plusSeconds(3)),
+                "Criação aguardou o serviço de eventos: " + Duration.between(registrationRequested, created));
+    }
+
+    @Test
+    void createUser_ShouldNotRegisterOrganizerWhenRoleAssignmentFails() {
+        wireMockServer.stubFor(post(urlEqualTo("/admin/realms/mocked-realm/users"))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.CREATED.value())
+                        .withHeader(HttpHeaders.LOCATION, "/admin/realms/mocked-realm/users/org-3")));
+        wireMockServer.stubFor(get(urlPathEqualTo("/admin/realms/mocked-realm/roles/ORGANIZADOR"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"id\": \"role-org\", \"name\": \"ORGANIZADOR\"}")));
+        wireMockServer.stubFor(post(urlEqualTo("/admin/realms/mocked-realm/users/org-3/role-mappings/realm"))
+                .willReturn(aResponse().withStatus(HttpStatus.INTERNAL_SERVER_ERROR.value())));
+        wireMockServer.stubFor(delete(urlEqualTo("/admin/realms/mocked-realm/users/org-3"))
+                .willReturn(aResponse().withStatus(HttpStatus.NO_CONTENT.value())));
+
+        UserDto organizer = new UserDto("org_user", "org@example.com", "Org", "User", "password123",
+                "ORGANIZADOR", "Teste Organização", "11 3333-3333", "1122334455-45");
+
+        StepVerifier.create(userService.createUser(organizer))
+                .expectError(AssignRoleException.class)
+                .verify();
+
+        verify(1, deleteRequestedFor(urlEqualTo("/admin/realms/mocked-realm/users/org-3")));
+        assertFalse(Files.exists(outboxDirectory.resolve("org-3.json")));
+        verify(0, postRequestedFor(urlPathEqualTo(ORGANIZERS_PATH)));
+    }
+
+    @Test
+    void enqueue_ShouldRetryUntilEventServiceRecovers() {
+        wireMockServer.stubFor(post(urlPathEqualTo(ORGANIZERS_PATH))
+                .willReturn(aResponse().withStatus(HttpStatus.SERVICE_UNAVAILABLE.value())));
+
+        StepVerifier.create(organizerOutbox.enqueue(new OrganizerCreateDto("org-2", "Teste Organização",
+                        "org@example.com", "11 3333-3333", "1122334455-45")))
+                .verifyComplete();
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                verify(moreThanOrExactly(2), postRequestedFor(urlPathEqualTo(ORGANIZERS_PATH))));
+        assertTrue(Files.exists(outboxDirectory.resolve("org-2.json")));
+
+        // Um 409 indica que uma entrega anterior já foi aceita
+        wireMockServer.stubFor(post(urlPathEqualTo(ORGANIZERS_PATH))
+                .willReturn(aResponse().withStatus(HttpStatus.CONFLICT.value())));
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> !Files.exists(outboxDirectory.resolve("org-2.json")));
+        assertFalse(Files.exists(outboxDirectory.resolve("dead").resolve("org-2.json")));
+    }
+
+    @Test
+    void enqueue_ShouldRenewTokenWhenEventServiceRejectsIt() {
+        wireMockServer.stubFor(post(urlPathEqualTo(TOKEN_PATH))
+                .inScenario("token").whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(okJson("{\"access_token\":\"stale-token\",\"expires_in\":3600}"))
+                .willSetStateTo("renovado"));
+        wireMockServer.stubFor(post(urlPathEqualTo(TOKEN_PATH))
+                .inScenario("token").whenScenarioStateIs("renovado")
+                .willReturn(okJson("{\"access_token\":\"fresh-token\",\"expires_in\":3600}")));
+        wireMockServer.stubFor(post(urlPathEqualTo(ORGANIZERS_PATH))
+                .withHeader(HttpHeaders.AUTHORIZATION, equalTo("Bearer stale-token"))
+                .willReturn(aResponse().withStatus(HttpStatus.UNAUTHORIZED.value())));
+        wireMockServer.stubFor(post(urlPathEqualTo(ORGANIZERS_PATH))
+                .withHeader(HttpHeaders.AUTHORIZATION, equalTo("Bearer fresh-token"))
+                .willReturn(aResponse().withStatus(HttpStatus.CREATED.value())));
+
+        StepVerifier.create(organizerOutbox.enqueue(new OrganizerCreateDto("org-4", "Teste Organização",
+                        "org@example.com", "11 3333-3333", "1122334455-45")))
+                .verifyComplete();
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> !Files.exists(outboxDirectory.resolve("org-4.json")));
+        assertFalse(Files.exists(outboxDirectory.resolve("dead").resolve("org-4.json")));
+        verify(2, postRequestedFor(urlPathEqualTo(TOKEN_PATH)));
+        verify(postRequestedFor(urlPathEqualTo(ORGANIZERS_PATH))
+                .withHeader(HttpHeaders.AUTHORIZATION, equalTo("Bearer fresh-token")));
+    }
+
+    @Test
+    void enqueue_ShouldNotRestoreEntryRemovedDuringDelivery() throws IOException {
+        wireMockServer.stubFor(post(urlPathEqualTo(ORGANIZERS_PATH))
+                .willReturn(aResponse().withStatus(HttpStatus.BAD_REQUEST.value()).withFixedDelay(1000)));
+
+        StepVerifier.create(organizerOutbox.enqueue(new OrganizerCreateDto("org-5", "Teste Organização",
+                        "org@example.com", "11 3333-3333", "1122334455-45")))
+                .verifyComplete();
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                verify(1, postRequestedFor(urlPathEqualTo(ORGANIZERS_PATH))));
+        Files.delete(outboxDirectory.resolve("org-5.json"));
+
+        // A falha permanente chega depois da remoção: o registro não volta nem vai para dead letters
+        await().during(Duration.ofSeconds(2)).atMost(Duration.ofSeconds(5)).until(() ->
+                !Files.exists(outboxDirectory.resolve("org-5.json"))
+                        && !Files.exists(outboxDirectory.resolve("dead").resolve("org-5.json")));
+        verify(1, postRequestedFor(urlPathEqualTo(ORGANIZERS_PATH)));
+    }
+}
@@ -0,0 +1,225 @@
+package br.dev.leandro.spring.cloud.user.resilience.integration;
+
+import br.dev.leandro.spring.cloud.user.config.KeycloakMockSupport;
+import br.dev.leandro.spring.cloud.user.config.WebClientTestConfig;
+import br.dev.leandro.spring.cloud.user.dto.UserDto;
+import br.dev.leandro.spring.cloud.user.exception.ResourceNotFoundException;
+import br.dev.leandro.spring.cloud.user.resilience.KeycloakOperation;
+import br.dev.leandro.spring.cloud.user.service.UserService;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Retry, circuit breaker e hedge das chamadas administrativas, com limites reduzidos para o teste.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.cloud.config.enabled=false",
+                "app.resilience.retry.min-backoff=10ms",
+                "app.resilience.retry.max-backoff=20ms",
+                "app.resilience.circuit-breaker.sliding-window-size=4",
+                "app.resilience.circuit-breaker.minimum-number-of-calls=4",
+                "app.resilience.circuit-breaker.wait-duration-in-open-state=1m",
+                "app.resilience.hedge.enabled=true",
+                "app.resilience.hedge.delay=200ms"},
+        classes = {WebClientTestConfig.class})
+class KeycloakResilienceIT extends KeycloakMockSupport {
+
+    private static final String USERS_PATH = "/admin/realms/mocked-realm/users";
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void findUserById_ShouldRetryTransientFailure() {
+        wireMockServer.stubFor(get(urlPathEqualTo(USERS_PATH + "/123456"))
+                .inScenario("retry")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(503))
+                .willSetStateTo("recuperado"));
+        wireMockServer.stubFor(get(urlPathEqualTo(USERS_PATH + "/123456"))
+                .inScenario("retry")
+                .whenScenarioStateIs("recuperado")
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"id\": \"123456\", \"username\": \"testuser\"}")));
+
+        StepVerifier.create(userService.findUserById("123456"))
+                .assertNext(user -> assertEquals("testuser", user.username()))
+                .verifyComplete();
+
+        verify(2, getRequestedFor(urlPathEqualTo(USERS_PATH + "/123456")));
+    }
+
+    @Test
+    void findUserById_ShouldNotRetryNotFound() {
+        wireMockServer.stubFor(get(urlPathEqualTo(USERS_PATH + "/missing"))
+                .willReturn(aResponse().withStatus(404)));
+
+        StepVerifier.create(userService.findUserById("missing"))
+                .expectError()
+                .verify();
+
+        verify(1, getRequestedFor(urlPathEqualTo(USERS_PATH + "/missing")));
+        assertEquals(CircuitBreaker.State.CLOSED, keycloakResilience.getState(KeycloakOperation.GET_USER));
+    }
+
+    @Test
+    void createUser_ShouldNotRetryPost() {
+        wireMockServer.stubFor(post(urlPathEqualTo(USERS_PATH))
+                .willReturn(aResponse().withStatus(503)));
+
+        StepVerifier.create(userService.createUser(new UserDto("test_user", "test@example.com", "Test", "User",
+                        "password123", "test-role", "Teste Organização", "11 3333-3333", "1122334455-45")))
+                .expectError()
+                .verify();
+
+        verify(1, postRequestedFor(urlPathEqualTo(USERS_PATH)));
+    }
+
+    @Test
+    void circuitBreaker_ShouldOpenAfterRepeatedFailures() {
+        wireMockServer.stubFor(get(urlPathMatching(USERS_PATH + "/.*"))
+                .willReturn(aResponse().withStatus(500)));
+
+        StepVerifier.create(userService.findUserById("1")).expectError().verify();
+        StepVerifier.create(userService.findUserById("2")).expectError().verify();
+        assertEquals(CircuitBreaker.State.OPEN, keycloakResilience.getState(KeycloakOperation.GET_USER));
+
+        StepVerifier.create(userService.findUserById("3"))
+                .expectError(CallNotPermittedException.class)
+                .verify();
+
+        verify(4, getRequestedFor(urlPathMatching(USERS_PATH + "/.*")));
+        verify(0, getRequestedFor(urlPathEqualTo(USERS_PATH + "/3")));
+    }
+
+    @Test
+    void findUserById_ShouldHedgeSlowRequest() {
+        wireMockServer.stubFor(get(urlPathEqualTo(USERS_PATH + "/123456"))
+                .inScenario("hedge")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withFixedDelay(2000)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"id\": \"123456\", \"username\": \"lento\"}"))
+                .willSetStateTo("hedge"));
+        wireMockServer.stubFor(get(urlPathEqualTo(USERS_PATH + "/123456"))
+                .inScenario("hedge")
+                .whenScenarioStateIs("hedge")
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"id\": \"123456\", \"username\": \"rapido\"}")));
+
+        StepVerifier.create(userService.findUserById("123456"))
+                .assertNext(user -> assertEquals("rapido", user.username()))
+                .verifyComplete();
+
+        // A segunda chamada saiu enquanto a primeira ainda aguardava os 2s de resposta
+        List<Instant> requested = wireMockServer.findAll(getRequestedFor(urlPathEqualTo(USERS_PATH + "/123456"))).stream()
+                .map(request -> request.getLoggedDate().toInstant())
+                .sorted()
+                .toList();
+        assertEquals(2, requested.size());
+        Instant slowRequested = requested.get(0);
+        Instant hedgeRequested = requested.get(1);
+        assertTrue(hedgeRequested.isBefore(slowRequested.plusMillis(2000)),
+                "Hedge enviado só após a resposta lenta: " + Duration.between(slowRequested, hedgeRequested));
+    }
+
+    @Test
+    void findUserById_ShouldKeepHedgeWhenFirstRequestFails() {
+        wireMockServer.stubFor(get(urlPathEqualTo(USERS_PATH + "/123456"))
+                .inScenario("hedge-falha")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse()
+                        .withStatus(503)
+                        .withFixedDelay(500))
+                .willSetStateTo("hedge"));
+        wireMockServer.stubFor(get(urlPathEqualTo(USERS_PATH + "/123456"))
+                .inScenario("hedge-falha")
+                .whenScenarioStateIs("hedge")
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withFixedDelay(600)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"id\": \"123456\", \"username\": \"hedge\"}")));
+
+        StepVerifier.create(userService.findUserById("123456"))
+                .assertNext(user -> assertEquals("hedge", user.username()))
+                .verifyComplete();
+
+        // A falha da primeira chamada não descartou o hedge em andamento nem disparou um retry
+        verify(2, getRequestedFor(urlPathEqualTo(USERS_PATH + "/123456")));
+    }
+
+    @Test
+    void assignRoleToUser_ShouldRetryRoleLookup() {
+        wireMockServer.stubFor(get(urlPathEqualTo("/admin/realms/mocked-realm/roles/role"))
+                .inScenario("role")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(503))
+                .willSetStateTo("recuperado"));
+        wireMockServer.stubFor(get(urlPathEqualTo("/admin/realms/mocked-realm/roles/role"))
+                .inScenario("role")
+                .whenScenarioStateIs("recuperado")
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"id\": \"role123\", \"name\": \"role\"}")));
+        wireMockServer.stubFor(post(urlPathEqualTo(USERS_PATH + "/123456/role-mappings/realm"))
+                .willReturn(aResponse().withStatus(204)));
+
+        StepVerifier.create(userService.assignRoleToUser("123456", "role"))
+                .verifyComplete();
+
+        verify(2, getRequestedFor(urlPathEqualTo("/admin/realms/mocked-realm/roles/role")));
+    }
+
+    @Test
+    void deleteUser_ShouldTreatNotFoundOnRetryAsDeleted() {
+        // O Keycloak excluiu o usuário, mas a primeira resposta falhou
+        wireMockServer.stubFor(delete(urlPathEqualTo(USERS_PATH + "/123456"))
+                .inScenario("delete")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(503))
+                .willSetStateTo("excluido"));
+        wireMockServer.stubFor(delete(urlPathEqualTo(USERS_PATH + "/123456"))
+                .inScenario("delete")
+                .whenScenarioStateIs("excluido")
+                .willReturn(aResponse().withStatus(404)));
+
+        StepVerifier.create(userService.deleteUser("123456"))
+                .verifyComplete();
+
+        verify(2, deleteRequestedFor(urlPathEqualTo(USERS_PATH + "/123456")));
+    }
+
+    @Test
+    void deleteUser_ShouldReportNotFoundOnFirstAttempt() {
+        wireMockServer.stubFor(delete(urlPathEqualTo(USERS_PATH + "/123456"))
+                .willReturn(aResponse().withStatus(404)));
+
+        StepVerifier.create(userService.deleteUser("123456"))
+                .expectError(ResourceNotFoundException.class)
+                .verify();
+    }
+}
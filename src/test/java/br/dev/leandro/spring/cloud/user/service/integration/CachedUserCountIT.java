@@ -0,0 +1,67 @@
+package br.dev.leandro.spring.cloud.user.service.integration;
+
+import br.dev.leandro.spring.cloud.user.config.KeycloakMockSupport;
+import br.dev.leandro.spring.cloud.user.config.WebClientTestConfig;
+import br.dev.leandro.spring.cloud.user.service.UserCountService;
+import br.dev.leandro.spring.cloud.user.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Listagem com {@code app.search.count-strategy=CACHED}: o total de cada termo de busca é consultado
+ * uma vez no Keycloak e reaproveitado durante o TTL.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.cloud.config.enabled=false",
+                "app.search.count-strategy=CACHED",
+                "app.search.count-cache-ttl=1m"},
+        classes = {WebClientTestConfig.class})
+class CachedUserCountIT extends KeycloakMockSupport {
+
+    private static final String USERS_PATH = "/admin/realms/mocked-realm/users";
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserCountService userCountService;
+
+    @BeforeEach
+    void setUp() {
+        userCountService.invalidateAll();
+
+        wireMockServer.stubFor(get(urlPathEqualTo(USERS_PATH))
+                .willReturn(okJson("[{\"id\":\"1\",\"username\":\"leandro\"}]")));
+        wireMockServer.stubFor(get(urlPathEqualTo(USERS_PATH + "/count"))
+                .willReturn(okJson("1")));
+    }
+
+    @Test
+    void findAllUsers_ShouldCountEachSearchTermOnceWithinTtl() {
+        Map<String, Object> first = userService.findAllUsers("Leandro", 0, 10).block();
+        userService.findAllUsers("Leandro", 10, 10).block();
+        // A busca do Keycloak não diferencia maiúsculas de minúsculas: mesmo total
+        Map<String, Object> sameTerm = userService.findAllUsers(" leandro ", 0, 10).block();
+
+        assertEquals(1, first.get("total"));
+        assertEquals(1, sameTerm.get("total"));
+        verify(1, getRequestedFor(urlPathEqualTo(USERS_PATH + "/count")));
+        verify(3, getRequestedFor(urlPathEqualTo(USERS_PATH)));
+
+        userService.findAllUsers("maria", 0, 10).block();
+        userService.findAllUsers(null, 0, 10).block();
+
+        verify(3, getRequestedFor(urlPathEqualTo(USERS_PATH + "/count")));
+        verify(1, getRequestedFor(urlPathEqualTo(USERS_PATH + "/count")).withQueryParam("search", equalTo("maria")));
+    }
+}
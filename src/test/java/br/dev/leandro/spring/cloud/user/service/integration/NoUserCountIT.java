@@ -0,0 +1,67 @@
+package br.dev.leandro.spring.cloud.user.service.integration;
+
+import br.dev.leandro.spring.cloud.user.config.KeycloakMockSupport;
+import br.dev.leandro.spring.cloud.user.config.WebClientTestConfig;
+import br.dev.leandro.spring.cloud.user.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Listagem com {@code app.search.count-strategy=NONE}: sem {@code /users/count} e sem {@code total};
+ * a próxima página é detectada buscando um usuário a mais.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.cloud.config.enabled=false",
+                "app.search.count-strategy=NONE"},
+        classes = {WebClientTestConfig.class})
+class NoUserCountIT extends KeycloakMockSupport {
+
+    private static final String USERS_PATH = "/admin/realms/mocked-realm/users";
+
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        // Três usuários no total, páginas de dois
+        wireMockServer.stubFor(get(urlPathEqualTo(USERS_PATH))
+                .withQueryParam("first", equalTo("0"))
+                .withQueryParam("max", equalTo("3"))
+                .willReturn(okJson("""
+                        [{"id":"1","username":"ana"},{"id":"2","username":"bia"},{"id":"3","username":"caio"}]
+                        """)));
+        wireMockServer.stubFor(get(urlPathEqualTo(USERS_PATH))
+                .withQueryParam("first", equalTo("2"))
+                .withQueryParam("max", equalTo("3"))
+                .willReturn(okJson("[{\"id\":\"3\",\"username\":\"caio\"}]")));
+    }
+
+    @Test
+    void findAllUsers_ShouldDetectNextPageWithoutCounting() {
+        Map<String, Object> first = userService.findAllUsers(null, 0, 2).block();
+
+        assertEquals(2, ((List<?>) first.get("users")).size());
+        assertEquals(true, first.get("hasNext"));
+        assertFalse(first.containsKey("total"));
+
+        Map<String, Object> last = userService.findAllUsers(null, 2, 2).block();
+
+        assertEquals(1, ((List<?>) last.get("users")).size());
+        assertEquals(false, last.get("hasNext"));
+        assertFalse(last.containsKey("total"));
+        assertEquals(2, last.get("page"));
+        verify(0, getRequestedFor(urlPathEqualTo(USERS_PATH + "/count")));
+    }
+}
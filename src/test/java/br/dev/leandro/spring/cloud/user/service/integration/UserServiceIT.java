@@ -1,15 +1,26 @@
 package br.dev.leandro.spring.cloud.user.service.integration;
 
+import br.dev.leandro.spring.cloud.user.cache.UserLookupCache;
 import br.dev.leandro.spring.cloud.user.config.WebClientTestConfig;
+import br.dev.leandro.spring.cloud.user.dto.BulkUserResult;
 import br.dev.leandro.spring.cloud.user.dto.UserDto;
 import br.dev.leandro.spring.cloud.user.dto.UserUpdateDto;
+import br.dev.leandro.spring.cloud.user.exception.AdminCredentialsException;
 import br.dev.leandro.spring.cloud.user.exception.AssignRoleException;
 import br.dev.leandro.spring.cloud.user.exception.ResourceNotFoundException;
+import br.dev.leandro.spring.cloud.user.keycloak.AdminTokenProvider;
+import br.dev.leandro.spring.cloud.user.keycloak.RoleCache;
+import br.dev.leandro.spring.cloud.user.resilience.KeycloakResilience;
+import br.dev.leandro.spring.cloud.user.service.UserBulkService;
+import br.dev.leandro.spring.cloud.user.service.UserExportService;
 import br.dev.leandro.spring.cloud.user.service.UserService;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.http.Fault;
 import com.github.tomakehurst.wiremock.junit5.WireMockTest;
+import com.github.tomakehurst.wiremock.matching.RequestPatternBuilder;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
 import jakarta.validation.constraints.NotNull;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,15 +28,17 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.env.Environment;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -44,6 +57,18 @@ class UserServiceIT {
 
     @Autowired
     private UserService userService;
+    @Autowired
+    private UserBulkService userBulkService;
+    @Autowired
+    private UserExportService userExportService;
+    @Autowired
+    private AdminTokenProvider adminTokenProvider;
+    @Autowired
+    private RoleCache roleCache;
+    @Autowired
+    private UserLookupCache userLookupCache;
+    @Autowired
+    private KeycloakResilience keycloakResilience;
     private UserDto userDto;
     private UserUpdateDto userUpdateDto;
 
@@ -71,6 +96,7 @@ class UserServiceIT {
     static void configureProperties(DynamicPropertyRegistry registry) {
         String wireMockUrl = wireMockServer.baseUrl(); // Sem necessidade de incluir `localhost`
         registry.add("spring.keycloak.admin.auth-server-url", () -> wireMockUrl);
+        registry.add("event.url", () -> wireMockUrl);
     }
 
     @AfterAll
@@ -84,11 +110,11 @@ class UserServiceIT {
         System.out.println("Stub configurado para: " + wireMockServer.baseUrl() + "/realms/mocked-realm/protocol/openid-connect/token");
 
         // Mock para obtenção de roles
-        wireMockServer.stubFor(get(urlPathEqualTo("/admin/realms/mocked-realm/roles"))
+        wireMockServer.stubFor(get(urlPathEqualTo("/admin/realms/mocked-realm/roles/role"))
                 .willReturn(aResponse()
                         .withStatus(200)
                         .withHeader("Content-Type", "application/json")
-                        .withBody("[{\"id\": \"role123\", \"name\": \"role\"}]")));
+                        .withBody("{\"id\": \"role123\", \"name\": \"role\"}")));
 
         //Mock userDto
         userDto = getUserDto();
@@ -97,6 +123,10 @@ class UserServiceIT {
         WireMock.configureFor("localhost", wireMockServer.port());
 
         wireMockServer.resetAll();
+        adminTokenProvider.invalidate();
+        roleCache.invalidateAll();
+        userLookupCache.invalidateAll();
+        keycloakResilience.reset();
     }
 
     @AfterEach
@@ -117,6 +147,62 @@ class UserServiceIT {
     }
 
 
+    @Nested
+    class AdminTokenTests {
+
+        @Test
+        void adminToken_ShouldBeReusedAcrossCalls() {
+            wireMockServer.stubFor(post(urlPathEqualTo("/realms/mocked-realm/protocol/openid-connect/token"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"access_token\":\"mocked-token\",\"expires_in\":3600}")));
+
+            wireMockServer.stubFor(get(urlPathMatching("/admin/realms/mocked-realm/users/.*"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"id\": \"123456\", \"username\": \"testuser\"}")));
+
+            StepVerifier.create(Mono.when(userService.findUserById("1"), userService.findUserById("2"))
+                            .then(userService.findUserById("3")))
+                    .expectNextCount(1)
+                    .verifyComplete();
+
+            verify(1, postRequestedFor(urlPathEqualTo("/realms/mocked-realm/protocol/openid-connect/token")));
+            verify(3, getRequestedFor(urlPathMatching("/admin/realms/mocked-realm/users/.*")));
+        }
+
+        @Test
+        void adminToken_ShouldRefreshAndRetryOnce_WhenKeycloakRejectsIt() {
+            wireMockServer.stubFor(post(urlPathEqualTo("/realms/mocked-realm/protocol/openid-connect/token"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"access_token\":\"mocked-token\",\"expires_in\":3600}")));
+
+            wireMockServer.stubFor(get(urlPathEqualTo("/admin/realms/mocked-realm/users/123456"))
+                    .inScenario("token-revogado")
+                    .whenScenarioStateIs(Scenario.STARTED)
+                    .willReturn(aResponse().withStatus(401))
+                    .willSetStateTo("renovado"));
+
+            wireMockServer.stubFor(get(urlPathEqualTo("/admin/realms/mocked-realm/users/123456"))
+                    .inScenario("token-revogado")
+                    .whenScenarioStateIs("renovado")
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"id\": \"123456\", \"username\": \"testuser\"}")));
+
+            StepVerifier.create(userService.findUserById("123456"))
+                    .expectNextMatches(user -> user.username().equals("testuser"))
+                    .verifyComplete();
+
+            verify(2, postRequestedFor(urlPathEqualTo("/realms/mocked-realm/protocol/openid-connect/token")));
+        }
+    }
+
     @Nested
     class CreateUserTests {
 
@@ -130,11 +216,11 @@ class UserServiceIT {
                             .withHeader("Content-Type", "application/json")
                             .withBody("{\"access_token\":\"mocked-token\",\"expires_in\":3600,\"token_type\":\"Bearer\"}")));
 
-            wireMockServer.stubFor(get(urlPathEqualTo("/admin/realms/mocked-realm/roles"))
+            wireMockServer.stubFor(get(urlPathEqualTo("/admin/realms/mocked-realm/roles/role"))
                     .willReturn(aResponse()
                             .withStatus(200)
                             .withHeader("Content-Type", "application/json")
-                            .withBody("[{\"id\": \"role123\", \"name\": \"role\"}]")));
+                            .withBody("{\"id\": \"role123\", \"name\": \"role\"}")));
 
             wireMockServer.stubFor(post(urlEqualTo("/admin/realms/mocked-realm/users"))
                     .withHeader("Authorization", equalTo("Bearer mocked-token"))
@@ -218,8 +304,8 @@ class UserServiceIT {
             // Verificação com StepVerifier
             StepVerifier.create(result)
                     .expectErrorSatisfies(throwable -> {
-                        assertInstanceOf(BadCredentialsException.class, throwable);
-                        assertEquals("Token inválido ou expirado.", throwable.getMessage());
+                        assertInstanceOf(AdminCredentialsException.class, throwable);
+                        assertEquals("Credenciais do serviço rejeitadas pelo Keycloak.", throwable.getMessage());
                     })
                     .verify();
         }
@@ -233,12 +319,10 @@ class UserServiceIT {
                             .withStatus(200)
                             .withHeader("Content-Type", "application/json")
                             .withBody("{\"access_token\":\"mocked-token\",\"expires_in\":3600,\"token_type\":\"Bearer\"}")));
-            // Configura o WireMock para não retornar roles
-            wireMockServer.stubFor(get(urlEqualTo("/admin/realms/mocked-realm/roles"))
+            // Configura o WireMock para não encontrar a role
+            wireMockServer.stubFor(get(urlEqualTo("/admin/realms/mocked-realm/roles/nonexistent-role"))
                     .willReturn(aResponse()
-                            .withStatus(200)
-                            .withHeader("Content-Type", "application/json")
-                            .withBody("[]")));
+                            .withStatus(404)));
 
             Mono<Void> result = userService.assignRoleToUser("123", "nonexistent-role");
 
@@ -250,6 +334,33 @@ class UserServiceIT {
                     .verify();
         }
 
+        @Test
+        void assignRoleToUser_ShouldReuseCachedRoleId() {
+            wireMockServer.stubFor(post(urlEqualTo("/realms/mocked-realm/protocol/openid-connect/token"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"access_token\":\"mocked-token\",\"expires_in\":3600}")));
+
+            wireMockServer.stubFor(get(urlEqualTo("/admin/realms/mocked-realm/roles/role"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"id\": \"role123\", \"name\": \"role\"}")));
+
+            wireMockServer.stubFor(post(urlPathMatching("/admin/realms/mocked-realm/users/.*/role-mappings/realm"))
+                    .willReturn(aResponse()
+                            .withStatus(HttpStatus.NO_CONTENT.value())));
+
+            StepVerifier.create(userService.assignRoleToUser("123", "role")
+                            .then(userService.assignRoleToUser("456", "role")))
+                    .verifyComplete();
+
+            verify(1, getRequestedFor(urlEqualTo("/admin/realms/mocked-realm/roles/role")));
+            verify(postRequestedFor(urlEqualTo("/admin/realms/mocked-realm/users/456/role-mappings/realm"))
+                    .withRequestBody(matchingJsonPath("$[0].id", equalTo("role123"))));
+        }
+
         @Test
         void testCreateUser_RoleAssignmentFails() {
             // Configuração do stub para obter o token
@@ -266,11 +377,11 @@ class UserServiceIT {
                             .withHeader("Location", "/admin/realms/mocked-realm/users/123")));
 
             // Configuração do stub para retornar a role existente
-            wireMockServer.stubFor(get(urlEqualTo("/admin/realms/mocked-realm/roles"))
+            wireMockServer.stubFor(get(urlEqualTo("/admin/realms/mocked-realm/roles/test-role"))
                     .willReturn(aResponse()
                             .withStatus(200)
                             .withHeader("Content-Type", "application/json")
-                            .withBody("[{\"id\": \"role123\", \"name\": \"test-role\"}]")));
+                            .withBody("{\"id\": \"role123\", \"name\": \"test-role\"}")));
 
             // Configuração do stub para atribuir role com erro
             wireMockServer.stubFor(post(urlEqualTo("/admin/realms/mocked-realm/users/123/role-mappings/realm"))
@@ -292,6 +403,187 @@ class UserServiceIT {
                     .verify();
 
         }
+
+        @Test
+        void createUser_ShouldDeleteUserWhenRoleDoesNotExist() {
+            wireMockServer.stubFor(post(urlEqualTo("/realms/mocked-realm/protocol/openid-connect/token"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"access_token\":\"mocked-token\",\"expires_in\":3600}")));
+            wireMockServer.stubFor(post(urlEqualTo("/admin/realms/mocked-realm/users"))
+                    .willReturn(aResponse()
+                            .withStatus(201)
+                            .withHeader("Location", "/admin/realms/mocked-realm/users/123")));
+            wireMockServer.stubFor(get(urlEqualTo("/admin/realms/mocked-realm/roles/test-role"))
+                    .willReturn(aResponse()
+                            .withStatus(404)));
+            wireMockServer.stubFor(delete(urlEqualTo("/admin/realms/mocked-realm/users/123"))
+                    .willReturn(aResponse()
+                            .withStatus(HttpStatus.NO_CONTENT.value())));
+
+            userDto = new UserDto("test_user", "test@example.com", "Test", "User", "password123", "test-role", "Teste Organização", "11 3333-3333", "1122334455-45");
+
+            StepVerifier.create(userService.createUser(userDto))
+                    .expectError(ResourceNotFoundException.class)
+                    .verify();
+
+            verify(1, deleteRequestedFor(urlEqualTo("/admin/realms/mocked-realm/users/123")));
+            verify(0, postRequestedFor(urlPathMatching("/admin/realms/mocked-realm/users/.*/role-mappings/realm")));
+        }
+
+        @Test
+        void createUser_ShouldRenewTokenWhenRoleAssignmentIsRejected() {
+            wireMockServer.stubFor(post(urlEqualTo("/realms/mocked-realm/protocol/openid-connect/token"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"access_token\":\"mocked-token\",\"expires_in\":3600}")));
+            wireMockServer.stubFor(post(urlEqualTo("/admin/realms/mocked-realm/users"))
+                    .willReturn(aResponse()
+                            .withStatus(201)
+                            .withHeader("Location", "/admin/realms/mocked-realm/users/123")));
+            wireMockServer.stubFor(get(urlEqualTo("/admin/realms/mocked-realm/roles/role"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"id\": \"role123\", \"name\": \"role\"}")));
+            // Token revogado no Keycloak antes do expires_in
+            wireMockServer.stubFor(post(urlEqualTo("/admin/realms/mocked-realm/users/123/role-mappings/realm"))
+                    .inScenario("token-revogado")
+                    .whenScenarioStateIs(Scenario.STARTED)
+                    .willReturn(aResponse().withStatus(401))
+                    .willSetStateTo("renovado"));
+            wireMockServer.stubFor(post(urlEqualTo("/admin/realms/mocked-realm/users/123/role-mappings/realm"))
+                    .inScenario("token-revogado")
+                    .whenScenarioStateIs("renovado")
+                    .willReturn(aResponse().withStatus(HttpStatus.NO_CONTENT.value())));
+
+            StepVerifier.create(userService.createUser(userDto))
+                    .verifyComplete();
+
+            verify(2, postRequestedFor(urlEqualTo("/admin/realms/mocked-realm/users/123/role-mappings/realm")));
+            verify(2, postRequestedFor(urlEqualTo("/realms/mocked-realm/protocol/openid-connect/token")));
+            verify(0, deleteRequestedFor(urlPathMatching("/admin/realms/mocked-realm/users/.*")));
+        }
+
+        @Test
+        void createUser_ShouldKeepUserWhenOrganizerRegistrationFails() {
+            wireMockServer.stubFor(post(urlEqualTo("/realms/mocked-realm/protocol/openid-connect/token"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"access_token\":\"mocked-token\",\"expires_in\":3600}")));
+            wireMockServer.stubFor(post(urlEqualTo("/admin/realms/mocked-realm/users"))
+                    .willReturn(aResponse()
+                            .withStatus(201)
+                            .withHeader("Location", "/admin/realms/mocked-realm/users/org-1")));
+            wireMockServer.stubFor(get(urlEqualTo("/admin/realms/mocked-realm/roles/ORGANIZADOR"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"id\": \"role-org\", \"name\": \"ORGANIZADOR\"}")));
+            wireMockServer.stubFor(post(urlEqualTo("/admin/realms/mocked-realm/users/org-1/role-mappings/realm"))
+                    .willReturn(aResponse()
+                            .withStatus(HttpStatus.NO_CONTENT.value())));
+            wireMockServer.stubFor(post(urlPathEqualTo("/events/organizers"))
+                    .willReturn(aResponse()
+                            .withStatus(HttpStatus.SERVICE_UNAVAILABLE.value())));
+
+            userDto = new UserDto("org_user", "org@example.com", "Org", "User", "password123", "ORGANIZADOR", "Teste Organização", "11 3333-3333", "1122334455-45");
+
+            StepVerifier.create(userService.createUser(userDto))
+                    .expectError(WebClientResponseException.ServiceUnavailable.class)
+                    .verify();
+
+            verify(1, postRequestedFor(urlPathEqualTo("/events/organizers"))
+                    .withRequestBody(matchingJsonPath("$.userId", equalTo("org-1"))));
+            verify(1, postRequestedFor(urlEqualTo("/admin/realms/mocked-realm/users/org-1/role-mappings/realm")));
+            verify(0, deleteRequestedFor(urlPathMatching("/admin/realms/mocked-realm/users/.*")));
+        }
+
+        @Test
+        void createUser_ShouldLookUpRoleWhileCreatingUser() {
+            wireMockServer.stubFor(post(urlEqualTo("/realms/mocked-realm/protocol/openid-connect/token"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"access_token\":\"mocked-token\",\"expires_in\":3600}")));
+            wireMockServer.stubFor(post(urlEqualTo("/admin/realms/mocked-realm/users"))
+                    .willReturn(aResponse()
+                            .withStatus(201)
+                            .withHeader("Location", "/admin/realms/mocked-realm/users/123")
+                            .withFixedDelay(600)));
+            wireMockServer.stubFor(get(urlEqualTo("/admin/realms/mocked-realm/roles/role"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"id\": \"role123\", \"name\": \"role\"}")
+                            .withFixedDelay(600)));
+            wireMockServer.stubFor(post(urlEqualTo("/admin/realms/mocked-realm/users/123/role-mappings/realm"))
+                    .willReturn(aResponse()
+                            .withStatus(HttpStatus.NO_CONTENT.value())));
+
+            StepVerifier.create(userService.createUser(userDto))
+                    .verifyComplete();
+
+            // Em sequência, a segunda chamada só chegaria ao Keycloak depois dos 600ms de resposta da primeira
+            Instant userRequested = receivedAt(postRequestedFor(urlEqualTo("/admin/realms/mocked-realm/users")));
+            Instant roleRequested = receivedAt(getRequestedFor(urlEqualTo("/admin/realms/mocked-realm/roles/role")));
+            Duration gap = Duration.between(userRequested, roleRequested).abs();
+            assertTrue(gap.compareTo(Duration.ofMillis(600)) < 0, "Busca da role não sobrepôs a criação: " + gap);
+            verify(postRequestedFor(urlEqualTo("/admin/realms/mocked-realm/users/123/role-mappings/realm"))
+                    .withRequestBody(matchingJsonPath("$[0].id", equalTo("role123"))));
+        }
+
+        private Instant receivedAt(RequestPatternBuilder request) {
+            List<LoggedRequest> requests = wireMockServer.findAll(request);
+            assertEquals(1, requests.size());
+            return requests.get(0).getLoggedDate().toInstant();
+        }
+    }
+
+    @Nested
+    class BulkCreateTests {
+
+        @Test
+        void createUsers_ShouldReportResultPerItem() {
+            wireMockServer.stubFor(post(urlEqualTo("/realms/mocked-realm/protocol/openid-connect/token"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"access_token\":\"mocked-token\",\"expires_in\":3600}")));
+
+            wireMockServer.stubFor(post(urlEqualTo("/admin/realms/mocked-realm/users"))
+                    .willReturn(aResponse()
+                            .withStatus(HttpStatus.CREATED.value())
+                            .withHeader(HttpHeaders.LOCATION, "/admin/realms/mocked-realm/users/123")));
+
+            wireMockServer.stubFor(get(urlEqualTo("/admin/realms/mocked-realm/roles/role"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"id\": \"role123\", \"name\": \"role\"}")));
+
+            wireMockServer.stubFor(post(urlEqualTo("/admin/realms/mocked-realm/users/123/role-mappings/realm"))
+                    .willReturn(aResponse()
+                            .withStatus(HttpStatus.NO_CONTENT.value())));
+
+            UserDto invalid = new UserDto("", "invalid-email", "Test", "User", "password123", "role", "Teste Organização", "11 3333-3333", "1122334455-45");
+
+            StepVerifier.create(userBulkService.createUsers(Flux.just(userDto, invalid, userDto))
+                            .collectSortedList((a, b) -> Long.compare(a.index(), b.index())))
+                    .assertNext(results -> {
+                        assertEquals(3, results.size());
+                        assertEquals(BulkUserResult.Status.CREATED, results.get(0).status());
+                        assertEquals(BulkUserResult.Status.INVALID, results.get(1).status());
+                        assertEquals(BulkUserResult.Status.CREATED, results.get(2).status());
+                    })
+                    .verifyComplete();
+
+            verify(1, postRequestedFor(urlPathEqualTo("/realms/mocked-realm/protocol/openid-connect/token")));
+            verify(2, postRequestedFor(urlEqualTo("/admin/realms/mocked-realm/users")));
+        }
     }
 
     @Nested
@@ -306,6 +598,7 @@ class UserServiceIT {
                             .withStatus(200)
                             .withHeader("Content-Type", "application/json")
                             .withBody("{\"access_token\":\"mocked-token\"}")));
+            stubCurrentUser("old@example.com", "Test");
 
             wireMockServer.stubFor(put(urlPathEqualTo("/admin/realms/mocked-realm/users/123456"))
                     .withHeader("Authorization", equalTo("Bearer mocked-token"))
@@ -327,7 +620,9 @@ class UserServiceIT {
             verify(putRequestedFor(urlPathEqualTo("/admin/realms/mocked-realm/users/123456"))
                     .withHeader("Authorization", equalTo("Bearer mocked-token"))
                     .withRequestBody(matchingJsonPath("$.username", equalTo("test_user")))
-                    .withRequestBody(matchingJsonPath("$.email", equalTo("test@example.com"))));
+                    .withRequestBody(matchingJsonPath("$.email", equalTo("test@example.com")))
+                    .withRequestBody(notMatching(".*firstName.*")));
+            verify(1, putRequestedFor(urlPathEqualTo("/admin/realms/mocked-realm/users/123456/reset-password")));
 
         }
 
@@ -361,6 +656,7 @@ class UserServiceIT {
                             .withStatus(200)
                             .withHeader("Content-Type", "application/json")
                             .withBody("{\"access_token\":\"mocked-token\"}")));
+            stubCurrentUser("old@example.com", "Test");
             // Arrange: Configuração do WireMock para retornar 403 Forbidden
             wireMockServer.stubFor(put(urlPathEqualTo("/admin/realms/mocked-realm/users/123456"))
                     .willReturn(aResponse()
@@ -392,19 +688,51 @@ class UserServiceIT {
         }
 
         @Test
-        void updateUser_ShouldHandleInvalidPassword() {
+        void updateUser_ShouldSkipPasswordResetWhenPasswordIsMissing() {
+            wireMockServer.stubFor(post(urlPathEqualTo("/realms/mocked-realm/protocol/openid-connect/token"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"access_token\":\"mocked-token\"}")));
+            stubCurrentUser("test@example.com", "Antigo");
             wireMockServer.stubFor(put(urlPathEqualTo("/admin/realms/mocked-realm/users/123456"))
+                    .willReturn(aResponse()
+                            .withStatus(204)));
+
+            UserUpdateDto updateDto = new UserUpdateDto("test_user", Optional.of("test@example.com"), Optional.of("Test"), Optional.of("User"), Optional.empty());
+
+            StepVerifier.create(userService.updateUser("123456", updateDto))
+                    .verifyComplete();
+
+            verify(putRequestedFor(urlPathEqualTo("/admin/realms/mocked-realm/users/123456"))
+                    .withRequestBody(equalToJson("{\"username\":\"test_user\",\"firstName\":\"Test\"}")));
+            verify(0, putRequestedFor(urlPathEqualTo("/admin/realms/mocked-realm/users/123456/reset-password")));
+        }
+
+        @Test
+        void updateUser_ShouldSkipPutWhenNothingChanged() {
+            wireMockServer.stubFor(post(urlPathEqualTo("/realms/mocked-realm/protocol/openid-connect/token"))
                     .willReturn(aResponse()
                             .withStatus(200)
-                            .withBody("Usuário atualizado com sucesso!")));
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"access_token\":\"mocked-token\"}")));
+            stubCurrentUser("Test@Example.com", "Test");
 
             UserUpdateDto updateDto = new UserUpdateDto("test_user", Optional.of("test@example.com"), Optional.of("Test"), Optional.of("User"), Optional.empty());
 
-            Exception exception = assertThrows(Exception.class, () -> {
-                userService.updateUser("123456", updateDto).block();
-            });
+            StepVerifier.create(userService.updateUser("123456", updateDto))
+                    .verifyComplete();
 
-            assertFalse(exception.getMessage().isEmpty());
+            verify(0, putRequestedFor(urlPathMatching("/admin/realms/mocked-realm/users/123456.*")));
+        }
+
+        private void stubCurrentUser(String email, String firstName) {
+            wireMockServer.stubFor(get(urlPathEqualTo("/admin/realms/mocked-realm/users/123456"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"id\":\"123456\",\"username\":\"test_user\",\"email\":\"" + email
+                                    + "\",\"firstName\":\"" + firstName + "\",\"lastName\":\"User\",\"enabled\":true}")));
         }
     }
 
@@ -549,6 +877,7 @@ class UserServiceIT {
             wireMockServer.stubFor(get(urlPathEqualTo("/admin/realms/mocked-realm/users/count"))
                     .willReturn(aResponse()
                             .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
                             .withBody("1")));
 
             StepVerifier.create(userService.findAllUsers("leandro", 0, 10))
@@ -557,8 +886,72 @@ class UserServiceIT {
                         return users.size() == 1 && users.getFirst().toString().contains("leandro");
                     })
                     .verifyComplete();
+
+            verify(getRequestedFor(urlPathEqualTo("/admin/realms/mocked-realm/users/count"))
+                    .withQueryParam("search", equalTo("leandro")));
         }
 
+
+        @Test
+        void findUserById_ShouldShareConcurrentLookups() {
+            wireMockServer.stubFor(post(urlPathEqualTo("/realms/mocked-realm/protocol/openid-connect/token"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"access_token\":\"mocked-token\"}")));
+
+            wireMockServer.stubFor(get(urlPathEqualTo("/admin/realms/mocked-realm/users/123456"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withFixedDelay(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"id\": \"123456\", \"username\": \"testuser\"}")));
+
+            StepVerifier.create(Flux.merge(
+                            userService.findUserById("123456"),
+                            userService.findUserById("123456"),
+                            userService.findUserById("123456")))
+                    .expectNextCount(3)
+                    .verifyComplete();
+
+            verify(1, getRequestedFor(urlPathEqualTo("/admin/realms/mocked-realm/users/123456")));
+        }
+
+        @Test
+        void exportUsers_ShouldPageThroughKeycloak() {
+            wireMockServer.stubFor(post(urlPathEqualTo("/realms/mocked-realm/protocol/openid-connect/token"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"access_token\":\"mocked-token\"}")));
+
+            wireMockServer.stubFor(get(urlPathEqualTo("/admin/realms/mocked-realm/users"))
+                    .atPriority(10)
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("[]")));
+
+            wireMockServer.stubFor(get(urlPathEqualTo("/admin/realms/mocked-realm/users"))
+                    .withQueryParam("first", equalTo("0"))
+                    .withQueryParam("max", equalTo("2"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("[{\"username\": \"user1\"}, {\"username\": \"user2\"}]")));
+
+            wireMockServer.stubFor(get(urlPathEqualTo("/admin/realms/mocked-realm/users"))
+                    .withQueryParam("first", equalTo("2"))
+                    .withQueryParam("max", equalTo("2"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("[{\"username\": \"user3\"}]")));
+
+            StepVerifier.create(userExportService.exportUsers("").map(UserDto::username))
+                    .expectNext("user1", "user2", "user3")
+                    .verifyComplete();
+        }
     }
 
     @NotNull